@@ -0,0 +1,27 @@
+plugins {
+    id("nbt.common-conventions")
+    id("me.champeau.jmh")
+}
+
+dependencies {
+    jmh(projects.common)
+    jmh(projects.extraCompression)
+    jmh(projects.stream)
+}
+
+sourceSets {
+    named("jmh") {
+        // Reuse the sample files from the common tests rather than keeping a second copy around.
+        resources.srcDir(rootProject.file("common/src/test/resources"))
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    profilers.add("gc")
+}
+
+// The benchmarks are for local use only, and should never be published.
+tasks.withType<AbstractPublishToMaven>().configureEach {
+    enabled = false
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.io.NamedTag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares writing a batch of chunks one at a time with
+ * {@link TagIO#writeAll}, which writes them in parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchWriteBenchmark {
+
+    @Param({"64", "1024"})
+    public int chunks;
+
+    private List<NamedTag> tags;
+
+    @Setup
+    public void setup() {
+        tags = new ArrayList<>(Collections.nCopies(chunks, new NamedTag("", Payloads.CHUNK.create())));
+    }
+
+    @Benchmark
+    public int sequential() throws IOException {
+        int total = 0;
+        for (final NamedTag tag : tags) {
+            final var output = new ByteArrayOutputStream();
+            TagIO.writeNamed(output, tag.name(), (CompoundTag) tag.tag(), TagCompression.POOLED_ZLIB);
+            total += output.size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int parallel() {
+        int total = 0;
+        for (final byte[] result : TagIO.writeAll(tags, TagCompression.POOLED_ZLIB, ForkJoinPool.commonPool()).join()) {
+            total += result.length;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CollectingTagVisitor;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for building a tag tree with {@link CollectingTagVisitor},
+ * compared to loading it with {@link org.kryptonmc.nbt.TagType#load(DataInput, int)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectingVisitorBenchmark {
+
+    @Param({"BIGTEST", "CHUNK"})
+    public Payloads payload;
+
+    private byte[] serialized;
+    private final CollectingTagVisitor collector = new CollectingTagVisitor();
+    private final CollectingTagVisitor filtered = new CollectingTagVisitor((depth, name, type) -> type != ListTag.TYPE, null);
+
+    @Setup
+    public void setup() {
+        serialized = Payloads.serialize(payload.create(), TagCompression.NONE);
+    }
+
+    @Benchmark
+    public Tag load() throws IOException {
+        return CompoundTag.TYPE.load(input(), 0);
+    }
+
+    @Benchmark
+    public Tag collect() throws IOException {
+        CompoundTag.TYPE.parseRoot(input(), collector);
+        return collector.result();
+    }
+
+    @Benchmark
+    public Tag collectFiltered() throws IOException {
+        CompoundTag.TYPE.parseRoot(input(), filtered);
+        return filtered.result();
+    }
+
+    private DataInput input() throws IOException {
+        final DataInput input = new DataInputStream(new ByteArrayInputStream(serialized));
+        input.readByte();
+        input.skipBytes(input.readUnsignedShort());
+        return input;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.compression.ExtraCompression;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the throughput of each compression type against the ratio it
+ * achieves, on chunk-shaped payloads.
+ *
+ * <p>The ratio is reported as the "ratioPercent" secondary result, which is
+ * the compressed size as a percentage of the uncompressed size.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"CHUNK", "ENTITIES"})
+    public Payloads payload;
+    @Param({"GZIP", "POOLED_GZIP", "ZLIB", "POOLED_ZLIB", "ZLIB_FAST", "DEFLATE", "LZ4", "ZSTD"})
+    public String compression;
+
+    private TagCompression tagCompression;
+    private CompoundTag tag;
+    private byte[] serialized;
+    private int uncompressedSize;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() {
+        tagCompression = switch (compression) {
+            case "GZIP" -> TagCompression.GZIP;
+            case "POOLED_GZIP" -> TagCompression.POOLED_GZIP;
+            case "ZLIB" -> TagCompression.ZLIB;
+            case "POOLED_ZLIB" -> TagCompression.POOLED_ZLIB;
+            case "ZLIB_FAST" -> TagCompression.zlib(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY);
+            case "DEFLATE" -> TagCompression.deflate(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+            case "LZ4" -> ExtraCompression.LZ4;
+            case "ZSTD" -> ExtraCompression.ZSTD;
+            default -> throw new IllegalArgumentException("Unknown compression " + compression + "!");
+        };
+        tag = payload.create();
+        serialized = Payloads.serialize(tag, tagCompression);
+        uncompressedSize = Payloads.serialize(tag, TagCompression.NONE).length;
+        output = new ByteArrayOutputStream(uncompressedSize);
+    }
+
+    @Benchmark
+    public CompoundTag decompress() throws IOException {
+        return TagIO.read(new ByteArrayInputStream(serialized), tagCompression);
+    }
+
+    @Benchmark
+    public int compress(final Ratio ratio) throws IOException {
+        output.reset();
+        TagIO.write(output, tag, tagCompression);
+        ratio.ratioPercent = output.size() * 100.0 / uncompressedSize;
+        return output.size();
+    }
+
+    /**
+     * Reports the compression ratio alongside the throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Ratio {
+
+        public double ratioPercent;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ratioPercent = 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagContainer;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading small compressed tags by name from a container,
+ * compared with reading them from a separate file each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainerBenchmark {
+
+    private static final int TAGS = 1024;
+
+    private Path directory;
+    private TagContainer container;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("container-benchmark");
+        try (final TagContainer.Writer writer = TagContainer.writer(directory.resolve("container.nbtc"))) {
+            for (int i = 0; i < TAGS; i++) {
+                final CompoundTag tag = ImmutableCompoundTag.builder().putString("name", "tag" + i).putInt("index", i).putLongs("data", new long[64]).build();
+                writer.write(name(i), tag, TagCompression.POOLED_GZIP);
+                TagIO.write(directory.resolve(name(i) + ".nbt"), tag, TagCompression.POOLED_GZIP);
+            }
+        }
+        container = TagContainer.open(directory.resolve("container.nbtc"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        container.close();
+        try (final Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CompoundTag readFile() throws IOException {
+        return TagIO.read(directory.resolve(name(nextIndex()) + ".nbt"), TagCompression.POOLED_GZIP);
+    }
+
+    @Benchmark
+    public CompoundTag readContainer() throws IOException {
+        return container.read(name(nextIndex()));
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % TAGS;
+        return next;
+    }
+
+    private static String name(final int index) {
+        return "tag" + index;
+    }
+}
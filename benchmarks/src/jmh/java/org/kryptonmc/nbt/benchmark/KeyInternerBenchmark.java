@@ -0,0 +1,69 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.io.KeyInterner;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for loading uncompressed payloads with and without interning
+ * compound keys with {@link KeyInterner}.
+ *
+ * <p>Run with {@code -prof gc} to see the difference in allocation.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyInternerBenchmark {
+
+    @Param({"BIGTEST", "CHUNK", "ENTITIES"})
+    public Payloads payload;
+    @Param({"true", "false"})
+    public boolean intern;
+
+    private byte[] serialized;
+    private KeyInterner previous;
+
+    @Setup
+    public void setup() {
+        serialized = Payloads.serialize(payload.create(), TagCompression.NONE);
+        previous = KeyInterner.shared();
+        KeyInterner.setShared(intern ? KeyInterner.create(1024) : KeyInterner.disabled());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        KeyInterner.setShared(previous);
+    }
+
+    @Benchmark
+    public CompoundTag read() throws IOException {
+        return TagIO.read(serialized, TagCompression.NONE);
+    }
+}
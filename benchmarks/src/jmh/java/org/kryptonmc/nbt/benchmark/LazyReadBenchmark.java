@@ -0,0 +1,87 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.TagProjection;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading a single entry of a large compound, and for reading
+ * a compound and writing it straight back out, with lazy and projected
+ * reading compared to full reading.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyReadBenchmark {
+
+    @Param({"CHUNK", "ENTITIES"})
+    public Payloads payload;
+
+    private static final TagProjection DATA_VERSION = TagProjection.including("DataVersion");
+
+    private byte[] serialized;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() {
+        serialized = Payloads.serialize(payload.create(), TagCompression.NONE);
+        output = new ByteArrayOutputStream(serialized.length);
+    }
+
+    @Benchmark
+    public int readOneEager() throws IOException {
+        return TagIO.read(serialized, TagCompression.NONE).getInt("DataVersion");
+    }
+
+    @Benchmark
+    public int readOneLazy() throws IOException {
+        return TagIO.readLazy(serialized, TagCompression.NONE).getInt("DataVersion");
+    }
+
+    @Benchmark
+    public int readOneProjected() throws IOException {
+        return TagIO.read(serialized, TagCompression.NONE, DATA_VERSION).getInt("DataVersion");
+    }
+
+    @Benchmark
+    public int readThenWriteEager() throws IOException {
+        return readThenWrite(TagIO.read(serialized, TagCompression.NONE));
+    }
+
+    @Benchmark
+    public int readThenWriteLazy() throws IOException {
+        return readThenWrite(TagIO.readLazy(serialized, TagCompression.NONE));
+    }
+
+    private int readThenWrite(final CompoundTag tag) throws IOException {
+        output.reset();
+        TagIO.write(output, tag, TagCompression.NONE);
+        return output.size();
+    }
+}
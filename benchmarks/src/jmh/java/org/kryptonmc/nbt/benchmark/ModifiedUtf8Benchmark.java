@@ -0,0 +1,148 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CollectionTag;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.BufferedTagOutput;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing every key and string value in a payload
+ * with {@link ModifiedUtf8}, compared with the JDK's implementation in
+ * {@link DataInputStream} and {@link DataOutputStream}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModifiedUtf8Benchmark {
+
+    @Param({"BIGTEST", "ENTITIES"})
+    public Payloads payload;
+
+    private String[] strings;
+    private byte[] encoded;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        final List<String> collected = new ArrayList<>();
+        collect(payload.create(), collected);
+        strings = collected.toArray(String[]::new);
+        try (final var data = new DataOutputStream(output)) {
+            for (final String value : strings) {
+                data.writeUTF(value);
+            }
+        }
+        encoded = output.toByteArray();
+    }
+
+    private static void collect(final Tag tag, final List<String> strings) {
+        if (tag instanceof CompoundTag compound) {
+            for (final String key : compound.keySet()) {
+                strings.add(key);
+                collect(compound.get(key), strings);
+            }
+        } else if (tag instanceof CollectionTag<?> collection) {
+            for (final Tag element : collection) {
+                collect(element, strings);
+            }
+        } else if (tag instanceof StringTag string) {
+            strings.add(string.value());
+        }
+    }
+
+    @Benchmark
+    public int readJdk() throws IOException {
+        final var input = new DataInputStream(new ByteArrayInputStream(encoded));
+        int total = 0;
+        for (int i = 0; i < strings.length; i++) {
+            total += input.readUTF().length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int readModifiedUtf8() throws IOException {
+        final var input = new DataInputStream(new ByteArrayInputStream(encoded));
+        int total = 0;
+        for (int i = 0; i < strings.length; i++) {
+            total += ModifiedUtf8.read(input).length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int readBuffered() throws IOException {
+        final var input = BufferedTagInput.of(encoded);
+        int total = 0;
+        for (int i = 0; i < strings.length; i++) {
+            total += input.readUTF().length();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int writeJdk() throws IOException {
+        output.reset();
+        final var data = new DataOutputStream(output);
+        for (final String value : strings) {
+            data.writeUTF(value);
+        }
+        data.flush();
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeModifiedUtf8() throws IOException {
+        output.reset();
+        final var data = new DataOutputStream(output);
+        for (final String value : strings) {
+            ModifiedUtf8.write(data, value);
+        }
+        data.flush();
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeBuffered() throws IOException {
+        output.reset();
+        try (final var data = BufferedTagOutput.of(output)) {
+            for (final String value : strings) {
+                data.writeUTF(value);
+            }
+        }
+        return output.size();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.ImmutableListTag;
+import org.kryptonmc.nbt.IntTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.LongArrayTag;
+import org.kryptonmc.nbt.MutableCompoundTag;
+import org.kryptonmc.nbt.MutableListTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for building and changing compound, list and array tags.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark {
+
+    @Param({"8", "64", "1024"})
+    public int size;
+
+    private String[] keys;
+    private CompoundTag chunk;
+
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+        }
+        chunk = Payloads.CHUNK.create();
+    }
+
+    @Benchmark
+    public CompoundTag immutableCompoundPut() {
+        ImmutableCompoundTag result = CompoundTag.EMPTY;
+        for (int i = 0; i < size; i++) {
+            result = result.putInt(keys[i], i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CompoundTag immutableCompoundPutRemove() {
+        ImmutableCompoundTag result = CompoundTag.EMPTY;
+        for (int i = 0; i < size; i++) {
+            result = result.putInt(keys[i], i);
+        }
+        for (int i = 0; i < size; i++) {
+            result = result.remove(keys[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CompoundTag immutableCompoundBuilder() {
+        final var builder = ImmutableCompoundTag.builder();
+        for (int i = 0; i < size; i++) {
+            builder.putInt(keys[i], i);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public CompoundTag mutableCompoundPut() {
+        final MutableCompoundTag result = MutableCompoundTag.empty();
+        for (int i = 0; i < size; i++) {
+            result.putInt(keys[i], i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CompoundTag chunkAsMutable() {
+        return chunk.asMutable().putLong("LastUpdate", size);
+    }
+
+    @Benchmark
+    public ListTag immutableListAdd() {
+        ImmutableListTag result = ListTag.EMPTY;
+        for (int i = 0; i < size; i++) {
+            result = result.add(IntTag.of(i));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ListTag mutableListAdd() {
+        final MutableListTag result = MutableListTag.empty();
+        for (int i = 0; i < size; i++) {
+            result.add(IntTag.of(i));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public LongArrayTag longArrayAdd() {
+        final LongArrayTag result = LongArrayTag.of(new long[0]);
+        for (int i = 0; i < size; i++) {
+            result.add((long) i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.kryptonmc.nbt.path.TagPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for selecting values with a {@link TagPath} whilst streaming,
+ * compared with reading the whole tree and selecting from that.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({"SECTION_HEIGHTS", "ZOMBIE_POSITIONS", "DATA_VERSION"})
+    public Query query;
+
+    private TagPath path;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        path = TagPath.compile(query.expression);
+        serialized = Payloads.serialize(query.payload.create(), TagCompression.NONE);
+    }
+
+    @Benchmark
+    public List<Tag> selectStreaming() throws IOException {
+        return path.select(BufferedTagInput.of(serialized));
+    }
+
+    @Benchmark
+    public List<Tag> selectTree() throws IOException {
+        return path.select(TagIO.read(serialized, TagCompression.NONE));
+    }
+
+    public enum Query {
+
+        SECTION_HEIGHTS(Payloads.CHUNK, "sections[*].Y"),
+        ZOMBIE_POSITIONS(Payloads.ENTITIES, "Entities[?id == 'minecraft:zombie'].Pos"),
+        DATA_VERSION(Payloads.CHUNK, "DataVersion");
+
+        final Payloads payload;
+        final String expression;
+
+        Query(final Payloads payload, final String expression) {
+            this.payload = payload;
+            this.expression = expression;
+        }
+    }
+}
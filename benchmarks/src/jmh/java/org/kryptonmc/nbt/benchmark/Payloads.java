@@ -0,0 +1,187 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Random;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.DoubleTag;
+import org.kryptonmc.nbt.FloatTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.ImmutableListTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+
+/**
+ * The payloads used by the benchmarks.
+ *
+ * <p>All the synthetic payloads are generated from a fixed seed, so every run
+ * works on exactly the same data.</p>
+ */
+public enum Payloads {
+
+    /**
+     * The classic "bigtest.nbt" file, which is also used in the tests.
+     */
+    BIGTEST {
+        @Override
+        CompoundTag create() {
+            try (final InputStream input = resource("bigtest.nbt")) {
+                return TagIO.read(input, TagCompression.NONE);
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    },
+    /**
+     * A chunk-shaped compound, with 24 sections, each holding palettes and
+     * packed block state, biome and light data.
+     */
+    CHUNK {
+        @Override
+        CompoundTag create() {
+            return chunk(new Random(SEED), 24, 64);
+        }
+    },
+    /**
+     * A compound with a list of thousands of small entity compounds.
+     */
+    ENTITIES {
+        @Override
+        CompoundTag create() {
+            return ImmutableCompoundTag.builder()
+                    .putInt("DataVersion", DATA_VERSION)
+                    .put("Entities", entities(new Random(SEED), 4096))
+                    .build();
+        }
+    };
+
+    private static final long SEED = 0x4B72_7970_746F_6EL;
+    private static final int DATA_VERSION = 3120;
+    private static final String[] BLOCKS = {
+            "minecraft:stone", "minecraft:dirt", "minecraft:grass_block", "minecraft:deepslate", "minecraft:water", "minecraft:air",
+            "minecraft:coal_ore", "minecraft:iron_ore", "minecraft:gravel", "minecraft:andesite", "minecraft:granite", "minecraft:diorite"
+    };
+    private static final String[] BIOMES = {"minecraft:plains", "minecraft:forest", "minecraft:river", "minecraft:dripstone_caves"};
+    private static final String[] ENTITY_TYPES = {"minecraft:zombie", "minecraft:skeleton", "minecraft:cow", "minecraft:item", "minecraft:bat"};
+
+    abstract CompoundTag create();
+
+    /**
+     * Serializes the given tag in to a byte array using the given compression.
+     *
+     * @param tag the tag
+     * @param compression the compression
+     * @return the serialized bytes
+     */
+    static byte[] serialize(final CompoundTag tag, final TagCompression compression) {
+        final var output = new ByteArrayOutputStream();
+        try {
+            TagIO.write(output, tag, compression);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+
+    static InputStream resource(final String name) {
+        return Objects.requireNonNull(Payloads.class.getClassLoader().getResourceAsStream(name), "Could not find resource " + name + "!");
+    }
+
+    private static CompoundTag chunk(final Random random, final int sections, final int entities) {
+        final var sectionList = ImmutableListTag.builder(CompoundTag.ID);
+        for (int y = -4; y < sections - 4; y++) {
+            sectionList.add(section(random, y));
+        }
+        return ImmutableCompoundTag.builder()
+                .putInt("DataVersion", DATA_VERSION)
+                .putInt("xPos", random.nextInt(2048) - 1024)
+                .putInt("zPos", random.nextInt(2048) - 1024)
+                .putInt("yPos", -4)
+                .putString("Status", "minecraft:full")
+                .putLong("LastUpdate", random.nextLong() & Long.MAX_VALUE)
+                .putLong("InhabitedTime", random.nextInt(100000))
+                .putCompound("Heightmaps", builder -> {
+                    for (final String name : new String[]{"MOTION_BLOCKING", "MOTION_BLOCKING_NO_LEAVES", "OCEAN_FLOOR", "WORLD_SURFACE"}) {
+                        builder.putLongs(name, randomLongs(random, 37));
+                    }
+                })
+                .put("sections", sectionList.build())
+                .put("block_entities", ListTag.EMPTY)
+                .put("entities", entities(random, entities))
+                .putBoolean("isLightOn", true)
+                .build();
+    }
+
+    private static CompoundTag section(final Random random, final int y) {
+        final var palette = ImmutableListTag.builder(CompoundTag.ID);
+        final int paletteSize = 1 + random.nextInt(BLOCKS.length);
+        for (int i = 0; i < paletteSize; i++) {
+            final String name = BLOCKS[i];
+            palette.add(ImmutableCompoundTag.builder()
+                    .putString("Name", name)
+                    .putCompound("Properties", builder -> builder.putString("snowy", "false"))
+                    .build());
+        }
+        final var biomePalette = ImmutableListTag.builder(StringTag.ID);
+        for (final String biome : BIOMES) {
+            biomePalette.addString(biome);
+        }
+        return ImmutableCompoundTag.builder()
+                .putByte("Y", (byte) y)
+                .putCompound("block_states", builder -> builder.put("palette", palette.build()).putLongs("data", randomLongs(random, 256)))
+                .putCompound("biomes", builder -> builder.put("palette", biomePalette.build()).putLongs("data", randomLongs(random, 2)))
+                .putBytes("BlockLight", randomBytes(random, 2048))
+                .putBytes("SkyLight", randomBytes(random, 2048))
+                .build();
+    }
+
+    private static ListTag entities(final Random random, final int count) {
+        final var entities = ImmutableListTag.builder(CompoundTag.ID);
+        for (int i = 0; i < count; i++) {
+            entities.add(ImmutableCompoundTag.builder()
+                    .putString("id", ENTITY_TYPES[random.nextInt(ENTITY_TYPES.length)])
+                    .putList("Pos", DoubleTag.ID, DoubleTag.of(random.nextDouble() * 16), DoubleTag.of(random.nextDouble() * 320 - 64),
+                            DoubleTag.of(random.nextDouble() * 16))
+                    .putList("Motion", DoubleTag.ID, DoubleTag.of(random.nextGaussian() * 0.1), DoubleTag.of(-0.0784000015258789),
+                            DoubleTag.of(random.nextGaussian() * 0.1))
+                    .putList("Rotation", FloatTag.ID, FloatTag.of(random.nextFloat() * 360), FloatTag.of(random.nextFloat() * 180 - 90))
+                    .putInts("UUID", random.nextInt(), random.nextInt(), random.nextInt(), random.nextInt())
+                    .putFloat("Health", 20.0F)
+                    .putShort("Fire", (short) -1)
+                    .putShort("Air", (short) 300)
+                    .putFloat("FallDistance", 0.0F)
+                    .putBoolean("OnGround", random.nextBoolean())
+                    .putBoolean("Invulnerable", false)
+                    .putInt("PortalCooldown", 0)
+                    .build());
+        }
+        return entities.build();
+    }
+
+    private static long[] randomLongs(final Random random, final int length) {
+        final long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextLong();
+        }
+        return result;
+    }
+
+    private static byte[] randomBytes(final Random random, final int length) {
+        final byte[] result = new byte[length];
+        random.nextBytes(result);
+        return result;
+    }
+}
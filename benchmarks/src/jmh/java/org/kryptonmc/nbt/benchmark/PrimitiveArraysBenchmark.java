@@ -0,0 +1,133 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.BufferedTagOutput;
+import org.kryptonmc.nbt.io.PrimitiveArrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing a block state sized long array one
+ * element at a time, compared with {@link PrimitiveArrays}, through both
+ * the buffered tag streams and the JDK's data streams.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveArraysBenchmark {
+
+    @Param({"BUFFERED", "JDK"})
+    public Stream stream;
+
+    private final long[] values = new long[4096];
+    private final long[] destination = new long[4096];
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(values.length * Long.BYTES);
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ThreadLocalRandom.current().nextLong();
+        }
+        final var data = new DataOutputStream(output);
+        for (final long value : values) {
+            data.writeLong(value);
+        }
+        data.flush();
+        encoded = output.toByteArray();
+    }
+
+    @Benchmark
+    public long[] readPerElement() throws IOException {
+        final DataInput input = stream.input(encoded);
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = input.readLong();
+        }
+        return destination;
+    }
+
+    @Benchmark
+    public long[] readBulk() throws IOException {
+        PrimitiveArrays.readLongs(stream.input(encoded), destination, 0, destination.length);
+        return destination;
+    }
+
+    @Benchmark
+    public int writePerElement() throws IOException {
+        output.reset();
+        final DataOutput data = stream.output(output);
+        for (final long value : values) {
+            data.writeLong(value);
+        }
+        ((Closeable) data).close();
+        return output.size();
+    }
+
+    @Benchmark
+    public int writeBulk() throws IOException {
+        output.reset();
+        final DataOutput data = stream.output(output);
+        PrimitiveArrays.writeLongs(data, values, 0, values.length);
+        ((Closeable) data).close();
+        return output.size();
+    }
+
+    public enum Stream {
+        BUFFERED {
+            @Override
+            DataInput input(final byte[] data) {
+                return BufferedTagInput.of(data);
+            }
+
+            @Override
+            DataOutput output(final ByteArrayOutputStream output) {
+                return BufferedTagOutput.of(output);
+            }
+        },
+        JDK {
+            @Override
+            DataInput input(final byte[] data) {
+                return new DataInputStream(new ByteArrayInputStream(data));
+            }
+
+            @Override
+            DataOutput output(final ByteArrayOutputStream output) {
+                return new DataOutputStream(output);
+            }
+        };
+
+        abstract DataInput input(byte[] data);
+
+        abstract DataOutput output(ByteArrayOutputStream output);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.ByteArrayTag;
+import org.kryptonmc.nbt.ByteTag;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.DoubleTag;
+import org.kryptonmc.nbt.EndTag;
+import org.kryptonmc.nbt.FloatTag;
+import org.kryptonmc.nbt.IntArrayTag;
+import org.kryptonmc.nbt.IntTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.LongArrayTag;
+import org.kryptonmc.nbt.LongTag;
+import org.kryptonmc.nbt.ShortTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.stream.BinaryNBTReader;
+import org.kryptonmc.nbt.stream.BinaryNBTWriter;
+import org.kryptonmc.nbt.stream.NBTPullParser;
+import org.kryptonmc.nbt.stream.NBTReader;
+import org.kryptonmc.nbt.stream.NBTWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the stream module's {@link BinaryNBTReader} and
+ * {@link BinaryNBTWriter}.
+ *
+ * <p>These drive the readers and writers through their typed calls, the same
+ * way a streaming consumer would, rather than materializing a tree. Arrays
+ * are read and written either one element per call, or with the bulk array
+ * calls. Reading a single entry skips everything else with
+ * {@link NBTReader#skipValue()}, matching names on their raw bytes. Pulling
+ * reads everything as tokens from {@link NBTPullParser}, in a single
+ * loop.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+    @Param({"BIGTEST", "CHUNK", "ENTITIES"})
+    public Payloads payload;
+    @Param({"false", "true"})
+    public boolean bulk;
+
+    // The last entry of a chunk, so finding it means skipping everything else.
+    private static final ByteBuffer IS_LIGHT_ON = ByteBuffer.wrap("isLightOn".getBytes(StandardCharsets.UTF_8));
+
+    private CompoundTag tag;
+    private byte[] serialized;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() {
+        tag = payload.create();
+        serialized = Payloads.serialize(tag, TagCompression.NONE);
+        output = new ByteArrayOutputStream(serialized.length);
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        try (final var reader = new BinaryNBTReader(new DataInputStream(new ByteArrayInputStream(serialized)))) {
+            reader.nextName();
+            return readCompound(reader, bulk);
+        }
+    }
+
+    @Benchmark
+    public int readOne() throws IOException {
+        try (final var reader = new BinaryNBTReader(new ByteArrayInputStream(serialized))) {
+            reader.nextName();
+            reader.beginCompound();
+            while (reader.hasNext()) {
+                if (reader.nextNameBytes().equals(IS_LIGHT_ON)) return reader.nextByte();
+                reader.skipValue();
+            }
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public long pull() throws IOException {
+        long hash = 0;
+        try (final var parser = new NBTPullParser(new ByteArrayInputStream(serialized))) {
+            for (var token = parser.next(); token != NBTPullParser.Token.END; token = parser.next()) {
+                switch (token) {
+                    case NAME, STRING -> hash += parser.textBytes().remaining();
+                    case BYTE, SHORT, INT, LONG -> hash += parser.longValue();
+                    case FLOAT, DOUBLE -> hash += (long) parser.doubleValue();
+                    case ARRAY_CHUNK -> hash += sumChunk(parser);
+                    default -> {
+                    }
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long sumChunk(final NBTPullParser parser) {
+        long hash = 0;
+        final int size = parser.chunkSize();
+        switch (parser.elementType()) {
+            case ByteTag.ID -> {
+                final byte[] chunk = parser.byteChunk();
+                for (int i = 0; i < size; i++) {
+                    hash += chunk[i];
+                }
+            }
+            case IntTag.ID -> {
+                final int[] chunk = parser.intChunk();
+                for (int i = 0; i < size; i++) {
+                    hash += chunk[i];
+                }
+            }
+            default -> {
+                final long[] chunk = parser.longChunk();
+                for (int i = 0; i < size; i++) {
+                    hash += chunk[i];
+                }
+            }
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        try (final var writer = new BinaryNBTWriter(new DataOutputStream(output))) {
+            writer.name("");
+            writeValue(writer, tag, bulk);
+        }
+        return output.size();
+    }
+
+    private static long readCompound(final NBTReader reader, final boolean bulk) throws IOException {
+        long hash = 0;
+        reader.beginCompound();
+        for (int type = reader.peekType(); type != EndTag.ID; type = reader.peekType()) {
+            hash += reader.nextName().length();
+            hash += readValue(reader, type, bulk);
+        }
+        reader.endCompound();
+        return hash;
+    }
+
+    private static long readValue(final NBTReader reader, final int type, final boolean bulk) throws IOException {
+        long hash = 0;
+        switch (type) {
+            case ByteTag.ID -> hash += reader.nextByte();
+            case ShortTag.ID -> hash += reader.nextShort();
+            case IntTag.ID -> hash += reader.nextInt();
+            case LongTag.ID -> hash += reader.nextLong();
+            case FloatTag.ID -> hash += (long) reader.nextFloat();
+            case DoubleTag.ID -> hash += (long) reader.nextDouble();
+            case StringTag.ID -> hash += reader.nextString().length();
+            case ByteArrayTag.ID -> {
+                final int size = reader.beginByteArray();
+                if (bulk) {
+                    final byte[] data = new byte[size];
+                    reader.readBytes(data, 0, size);
+                    for (final byte element : data) {
+                        hash += element;
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        hash += reader.nextByte();
+                    }
+                }
+                reader.endByteArray();
+            }
+            case IntArrayTag.ID -> {
+                final int size = reader.beginIntArray();
+                if (bulk) {
+                    final int[] data = new int[size];
+                    reader.readInts(data, 0, size);
+                    for (final int element : data) {
+                        hash += element;
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        hash += reader.nextInt();
+                    }
+                }
+                reader.endIntArray();
+            }
+            case LongArrayTag.ID -> {
+                final int size = reader.beginLongArray();
+                if (bulk) {
+                    final long[] data = new long[size];
+                    reader.readLongs(data, 0, size);
+                    for (final long element : data) {
+                        hash += element;
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        hash += reader.nextLong();
+                    }
+                }
+                reader.endLongArray();
+            }
+            case ListTag.ID -> {
+                // The element type is the next byte after the name, so we can peek at it before the list is opened.
+                final int elementType = reader.peekType();
+                final int size = reader.beginList(elementType);
+                for (int i = 0; i < size; i++) {
+                    hash += elementType == CompoundTag.ID ? readCompound(reader, bulk) : readValue(reader, elementType, bulk);
+                }
+                reader.endList();
+            }
+            case CompoundTag.ID -> hash += readCompound(reader, bulk);
+            default -> throw new IllegalStateException("Unexpected type " + type + "!");
+        }
+        return hash;
+    }
+
+    private static void writeValue(final NBTWriter writer, final Tag value, final boolean bulk) throws IOException {
+        switch (value.id()) {
+            case ByteArrayTag.ID -> {
+                final byte[] data = ((ByteArrayTag) value).getData();
+                writer.beginByteArray(data.length);
+                if (bulk) {
+                    writer.writeBytes(data, 0, data.length);
+                } else {
+                    for (final byte element : data) {
+                        writer.value(element);
+                    }
+                }
+                writer.endByteArray();
+            }
+            case IntArrayTag.ID -> {
+                final int[] data = ((IntArrayTag) value).getData();
+                writer.beginIntArray(data.length);
+                if (bulk) {
+                    writer.writeInts(data, 0, data.length);
+                } else {
+                    for (final int element : data) {
+                        writer.value(element);
+                    }
+                }
+                writer.endIntArray();
+            }
+            case LongArrayTag.ID -> {
+                final long[] data = ((LongArrayTag) value).getData();
+                writer.beginLongArray(data.length);
+                if (bulk) {
+                    writer.writeLongs(data, 0, data.length);
+                } else {
+                    for (final long element : data) {
+                        writer.value(element);
+                    }
+                }
+                writer.endLongArray();
+            }
+            case ListTag.ID -> {
+                final ListTag list = (ListTag) value;
+                writer.beginList(list.elementType(), list.size());
+                for (final Tag element : list) {
+                    writeValue(writer, element, bulk);
+                }
+                writer.endList();
+            }
+            case CompoundTag.ID -> {
+                writer.beginCompound();
+                for (final var entry : ((CompoundTag) value).getData().entrySet()) {
+                    writer.name(entry.getKey());
+                    writeValue(writer, entry.getValue(), bulk);
+                }
+                writer.endCompound();
+            }
+            default -> writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.TagType;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link TagType#parse(DataInput, StreamingTagVisitor)}, both
+ * visiting every value and skipping everything below the root.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingVisitorBenchmark {
+
+    @Param({"BIGTEST", "CHUNK", "ENTITIES"})
+    public Payloads payload;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        serialized = Payloads.serialize(payload.create(), TagCompression.NONE);
+    }
+
+    @Benchmark
+    public int parseAll() throws IOException {
+        final var visitor = new CountingVisitor(StreamingTagVisitor.EntryResult.ENTER);
+        parse(visitor);
+        return visitor.count;
+    }
+
+    @Benchmark
+    public int parseSkipAll() throws IOException {
+        final var visitor = new CountingVisitor(StreamingTagVisitor.EntryResult.SKIP);
+        parse(visitor);
+        return visitor.count;
+    }
+
+    private void parse(final StreamingTagVisitor visitor) throws IOException {
+        final DataInput input = new DataInputStream(new ByteArrayInputStream(serialized));
+        input.readByte();
+        input.skipBytes(input.readUnsignedShort());
+        CompoundTag.TYPE.parse(input, visitor);
+    }
+
+    /**
+     * A visitor that counts everything it sees, and returns the given result
+     * for every entry and element.
+     */
+    private static final class CountingVisitor implements StreamingTagVisitor {
+
+        private final EntryResult entryResult;
+        int count;
+
+        CountingVisitor(final EntryResult entryResult) {
+            this.entryResult = entryResult;
+        }
+
+        private @NotNull ValueResult count() {
+            count++;
+            return ValueResult.CONTINUE;
+        }
+
+        @Override
+        public @NotNull ValueResult visitEnd() {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final @NotNull String value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final byte value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final short value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final int value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final long value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final float value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final double value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final byte@NotNull[] value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final int@NotNull[] value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visit(final long@NotNull[] value) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visitList(final @NotNull TagType<?> type, final int size) {
+            return count();
+        }
+
+        @Override
+        public @NotNull EntryResult visitElement(final @NotNull TagType<?> type, final int index) {
+            count++;
+            return entryResult;
+        }
+
+        @Override
+        public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type) {
+            count++;
+            return entryResult;
+        }
+
+        @Override
+        public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type, final @NotNull String name) {
+            return EntryResult.ENTER;
+        }
+
+        @Override
+        public @NotNull ValueResult visitRootEntry(final @NotNull TagType<?> type) {
+            return count();
+        }
+
+        @Override
+        public @NotNull ValueResult visitContainerEnd() {
+            return count();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.visitor.StringTagVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for converting tags to SNBT with {@link StringTagVisitor}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringTagVisitorBenchmark {
+
+    @Param({"BIGTEST", "CHUNK", "ENTITIES"})
+    public Payloads payload;
+
+    private CompoundTag tag;
+
+    @Setup
+    public void setup() {
+        tag = payload.create();
+    }
+
+    @Benchmark
+    public String asString() {
+        return new StringTagVisitor().visit(tag);
+    }
+}
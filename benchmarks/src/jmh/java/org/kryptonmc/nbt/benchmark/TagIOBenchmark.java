@@ -0,0 +1,82 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing whole compounds with {@link TagIO}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagIOBenchmark {
+
+    @Param({"BIGTEST", "CHUNK", "ENTITIES"})
+    public Payloads payload;
+    @Param({"NONE", "GZIP", "ZLIB"})
+    public String compression;
+
+    private TagCompression tagCompression;
+    private CompoundTag tag;
+    private byte[] serialized;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() {
+        tagCompression = switch (compression) {
+            case "NONE" -> TagCompression.NONE;
+            case "GZIP" -> TagCompression.GZIP;
+            case "ZLIB" -> TagCompression.ZLIB;
+            default -> throw new IllegalArgumentException("Unknown compression " + compression + "!");
+        };
+        tag = payload.create();
+        serialized = Payloads.serialize(tag, tagCompression);
+        output = new ByteArrayOutputStream(serialized.length);
+    }
+
+    @Benchmark
+    public CompoundTag read() throws IOException {
+        return TagIO.read(new ByteArrayInputStream(serialized), tagCompression);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        TagIO.write(output, tag, tagCompression);
+        return output.size();
+    }
+
+    @Benchmark
+    public int readThenWrite() throws IOException {
+        output.reset();
+        TagIO.write(output, TagIO.read(new ByteArrayInputStream(serialized), tagCompression), tagCompression);
+        return output.size();
+    }
+}
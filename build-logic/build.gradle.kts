@@ -8,6 +8,7 @@ dependencies {
     implementation(libs.plugin.licenser)
     implementation(libs.plugin.kotlin)
     implementation(libs.plugin.extraModuleInfo)
+    implementation(libs.plugin.jmh)
     implementation(libs.mammoth)
     implementation(libs.pebble)
     implementation(libs.snakeyaml)
@@ -18,6 +18,9 @@ module nbt.common {
 
     exports org.kryptonmc.nbt;
     exports org.kryptonmc.nbt.io;
+    exports org.kryptonmc.nbt.path;
     exports org.kryptonmc.nbt.util;
     exports org.kryptonmc.nbt.visitor;
+
+    uses org.kryptonmc.nbt.io.TagCompressionProvider;
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.pcollections.AbstractUnmodifiableMap;
+import org.pcollections.OrderedPMap;
+import org.pcollections.PMap;
+
+/**
+ * A persistent map that stores its keys and values in flat, parallel arrays,
+ * in insertion order, used for the data of immutable compounds.
+ *
+ * <p>Most compounds only have a handful of entries, and for those, a linear
+ * scan over an array is faster than any hashing, and costs a fraction of the
+ * memory of a hash trie. Maps with more than {@link #MAX_SIZE} entries also
+ * have an open addressing hash index in to the arrays, built when the map is
+ * created, so lookups stay constant time.</p>
+ *
+ * <p>Every modification copies the arrays, so adding entries to a map that
+ * already has {@link #MAX_SIZE} or more entries promotes it to an
+ * {@link OrderedPMap} instead, which keeps the order, and keeps further
+ * modifications cheap.</p>
+ */
+final class ArrayPMap extends AbstractUnmodifiableMap<String, Tag> implements PMap<String, Tag> {
+
+    /**
+     * The maximum amount of entries that are found by scanning, rather than
+     * through the index, and the maximum size of map that entries can be
+     * added to without promoting it.
+     */
+    static final int MAX_SIZE = 16;
+    private static final ArrayPMap EMPTY = new ArrayPMap(new String[0], new Tag[0], null);
+
+    private final String[] keys;
+    private final Tag[] values;
+    // Slots hold the index of the entry plus one, so that zero means the slot is free. Only present above MAX_SIZE entries.
+    private final int@Nullable[] index;
+
+    private ArrayPMap(final String[] keys, final Tag[] values, final int@Nullable[] index) {
+        this.keys = keys;
+        this.values = values;
+        this.index = index;
+    }
+
+    private static ArrayPMap of(final String[] keys, final Tag[] values) {
+        if (keys.length == 0) return EMPTY;
+        return new ArrayPMap(keys, values, keys.length > MAX_SIZE ? buildIndex(keys, keys.length) : null);
+    }
+
+    static @NotNull ArrayPMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a flat map with the entries of the given map, in the order they
+     * are iterated in.
+     *
+     * @param data the data
+     * @return a new flat map
+     */
+    static @NotNull PMap<String, Tag> from(final @NotNull Map<? extends String, ? extends Tag> data) {
+        if (data instanceof ArrayPMap map) return map;
+        final int size = data.size();
+        if (size == 0) return EMPTY;
+        final String[] keys = new String[size];
+        final Tag[] values = new Tag[size];
+        int index = 0;
+        for (final var entry : data.entrySet()) {
+            keys[index] = entry.getKey();
+            values[index++] = entry.getValue();
+        }
+        return of(keys, values);
+    }
+
+    private static int slot(final Object key, final int mask) {
+        final int hash = key.hashCode();
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    static int[] buildIndex(final String[] keys, final int size) {
+        // Keep the load factor at or below a half, so probe sequences stay short.
+        final int[] index = new int[Integer.highestOneBit(size) << 2];
+        for (int i = 0; i < size; i++) {
+            insert(index, keys[i], i);
+        }
+        return index;
+    }
+
+    static void insert(final int[] index, final String key, final int position) {
+        final int mask = index.length - 1;
+        int slot = slot(key, mask);
+        while (index[slot] != 0) {
+            slot = slot + 1 & mask;
+        }
+        index[slot] = position + 1;
+    }
+
+    static int find(final int[] index, final String[] keys, final Object key) {
+        final int mask = index.length - 1;
+        for (int slot = slot(key, mask); index[slot] != 0; slot = slot + 1 & mask) {
+            final int position = index[slot] - 1;
+            if (keys[position].equals(key)) return position;
+        }
+        return -1;
+    }
+
+    private int indexOf(final Object key) {
+        if (index != null) return key == null ? -1 : find(index, keys, key);
+        // String.equals checks for identity first, which is quick for the keys of loaded compounds, as they are usually interned.
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    public @Nullable Tag get(final Object key) {
+        final int position = indexOf(key);
+        return position == -1 ? null : values[position];
+    }
+
+    @Override
+    public void forEach(final @NotNull BiConsumer<? super String, ? super Tag> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> plus(final @NotNull String key, final @NotNull Tag value) {
+        final int position = indexOf(key);
+        if (position != -1) {
+            if (values[position] == value) return this;
+            final Tag[] newValues = values.clone();
+            newValues[position] = value;
+            // The keys haven't changed, so neither has the index.
+            return new ArrayPMap(keys, newValues, index);
+        }
+        if (keys.length >= MAX_SIZE) return OrderedPMap.from(this).plus(key, value);
+        final String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        final Tag[] newValues = Arrays.copyOf(values, values.length + 1);
+        newKeys[keys.length] = key;
+        newValues[values.length] = value;
+        return of(newKeys, newValues);
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> plusAll(final @NotNull Map<? extends String, ? extends Tag> map) {
+        PMap<String, Tag> result = this;
+        for (final var entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> minus(final @NotNull Object key) {
+        final int position = indexOf(key);
+        if (position == -1) return this;
+        if (keys.length == 1) return EMPTY;
+        final String[] newKeys = new String[keys.length - 1];
+        final Tag[] newValues = new Tag[values.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, position);
+        System.arraycopy(values, 0, newValues, 0, position);
+        System.arraycopy(keys, position + 1, newKeys, position, newKeys.length - position);
+        System.arraycopy(values, position + 1, newValues, position, newValues.length - position);
+        return of(newKeys, newValues);
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> minusAll(final @NotNull Collection<?> keys) {
+        PMap<String, Tag> result = this;
+        for (final Object key : keys) {
+            result = result.minus(key);
+        }
+        return result;
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Tag>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Entry<String, Tag>> iterator() {
+                return new Iterator<>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, Tag> next() {
+                        if (position >= keys.length) throw new NoSuchElementException();
+                        final Entry<String, Tag> result = Map.entry(keys[position], values[position]);
+                        position++;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < keys.length; i++) {
+            result += keys[i].hashCode() ^ values[i].hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Collects entries straight in to the arrays of a new flat map, keeping
+     * the order they are added in.
+     *
+     * <p>As with any map, later entries replace earlier entries with the same
+     * key, in the position of the earlier entry.</p>
+     */
+    static final class Collector {
+
+        private String[] keys = new String[8];
+        private Tag[] values = new Tag[8];
+        private int size;
+        // Built once we have more than MAX_SIZE entries, so finding duplicates stays cheap for large compounds.
+        private int@Nullable[] index;
+
+        void put(final @NotNull String key, final @NotNull Tag value) {
+            final int existing = indexOf(key);
+            if (existing != -1) {
+                values[existing] = value;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            if (index != null && (size + 1) * 2 <= index.length) {
+                insert(index, key, size);
+            } else if (size + 1 > MAX_SIZE) {
+                index = buildIndex(keys, size + 1);
+            }
+            size++;
+        }
+
+        private int indexOf(final String key) {
+            if (index != null) return find(index, keys, key);
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Builds the map. The collector should not be used afterwards.
+         *
+         * @return the map
+         */
+        @NotNull PMap<String, Tag> build() {
+            if (size == 0) return EMPTY;
+            // The index only refers to positions below the size, so it's still valid for the trimmed arrays.
+            if (size == keys.length) return new ArrayPMap(keys, values, index);
+            return new ArrayPMap(Arrays.copyOf(keys, size), Arrays.copyOf(values, size), index);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.util.Types;
+import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
+import org.pcollections.PMap;
+import org.pcollections.TreePVector;
+
+/**
+ * A streaming visitor that builds the tag tree it visits, which is the
+ * tree-building counterpart of {@link TagType#load(java.io.DataInput, int)}
+ * for {@link TagType#parseRoot(java.io.DataInput, StreamingTagVisitor)}.
+ *
+ * <p>The tree is built on an explicit stack, rather than by recursion, and
+ * produces exactly the same immutable tags as loading does, including
+ * storing lists of numbers as flat arrays of primitive values.</p>
+ *
+ * <p>Compound entries can be filtered before they are read, so anything the
+ * filter rejects is skipped without being decoded, and transformed after
+ * they are built, which can replace or drop them. The depth given to both is
+ * the depth of the compound holding the entry, where the root is at depth
+ * 0.</p>
+ *
+ * <p>Visitors can be reused, as visiting a new root entry starts a new tree.
+ * Instances of this class are not thread-safe.</p>
+ */
+public final class CollectingTagVisitor implements StreamingTagVisitor {
+
+    private static final int MAX_DEPTH = 512;
+
+    private final @Nullable EntryFilter filter;
+    private final @Nullable EntryTransformer transformer;
+    private Frame[] frames = new Frame[16];
+    private int depth;
+    private @Nullable Tag result;
+
+    /**
+     * Creates a new visitor that collects everything.
+     */
+    public CollectingTagVisitor() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a new visitor that collects everything, filtering and
+     * transforming compound entries with the given filter and transformer.
+     *
+     * @param filter the filter for compound entries, or null to collect all
+     * entries
+     * @param transformer the transformer for compound entries, or null to
+     * keep all entries as they are
+     */
+    public CollectingTagVisitor(final @Nullable EntryFilter filter, final @Nullable EntryTransformer transformer) {
+        this.filter = filter;
+        this.transformer = transformer;
+    }
+
+    /**
+     * Gets the tag that was built from the last root entry visited.
+     *
+     * @return the built tag, or null if no root entry has been visited in
+     * full
+     */
+    public @Nullable Tag result() {
+        return result;
+    }
+
+    private Frame push() {
+        if (depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame();
+            frames[depth] = frame;
+        }
+        depth++;
+        return frame;
+    }
+
+    private void pushCompound() {
+        push().compound = new ArrayPMap.Collector();
+    }
+
+    private ValueResult add(final Tag tag) {
+        if (depth == 0) {
+            result = tag;
+            return ValueResult.CONTINUE;
+        }
+        final Frame frame = frames[depth - 1];
+        if (frame.compound != null) {
+            final Tag value = transformer == null ? tag : transformer.transform(depth - 1, frame.name, tag);
+            if (value != null) frame.compound.put(frame.name, value);
+        } else {
+            frame.tags[frame.count++] = tag;
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    private @Nullable Frame primitives() {
+        return depth == 0 ? null : frames[depth - 1];
+    }
+
+    @Override
+    public @NotNull ValueResult visitEnd() {
+        // Lists can't hold end tags, so if we get here, the data is malformed.
+        if (depth != 0) return ValueResult.HALT;
+        result = EndTag.INSTANCE;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final @NotNull String value) {
+        return add(StringTag.of(value));
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final byte value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.bytes == null) return add(ByteTag.of(value));
+        frame.bytes[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final short value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.shorts == null) return add(ShortTag.of(value));
+        frame.shorts[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final int value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.ints == null) return add(IntTag.of(value));
+        frame.ints[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final long value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.longs == null) return add(LongTag.of(value));
+        frame.longs[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final float value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.floats == null) return add(FloatTag.of(value));
+        frame.floats[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final double value) {
+        final Frame frame = primitives();
+        if (frame == null || frame.doubles == null) return add(DoubleTag.of(value));
+        frame.doubles[frame.count++] = value;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final byte@NotNull[] value) {
+        return add(ByteArrayTag.of(value));
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final int@NotNull[] value) {
+        return add(IntArrayTag.of(value));
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final long@NotNull[] value) {
+        return add(LongArrayTag.of(value));
+    }
+
+    @Override
+    public @NotNull ValueResult visitList(final @NotNull TagType<?> type, final int size) {
+        if (depth >= MAX_DEPTH) return ValueResult.HALT;
+        final int id = Types.id(type);
+        if (id == EndTag.ID && size > 0) return ValueResult.HALT;
+        final Frame frame = push();
+        frame.elementType = id;
+        // Numbers are collected straight in to a primitive array, without creating any tags, just like loading does.
+        switch (id) {
+            case ByteTag.ID -> frame.bytes = new byte[size];
+            case ShortTag.ID -> frame.shorts = new short[size];
+            case IntTag.ID -> frame.ints = new int[size];
+            case LongTag.ID -> frame.longs = new long[size];
+            case FloatTag.ID -> frame.floats = new float[size];
+            case DoubleTag.ID -> frame.doubles = new double[size];
+            default -> frame.tags = new Tag[size];
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull EntryResult visitElement(final @NotNull TagType<?> type, final int index) {
+        if (type == CompoundTag.TYPE) {
+            if (depth >= MAX_DEPTH) return EntryResult.HALT;
+            pushCompound();
+        }
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type) {
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type, final @NotNull String name) {
+        if (filter != null && !filter.test(depth - 1, name, type)) return EntryResult.SKIP;
+        frames[depth - 1].name = name;
+        if (type == CompoundTag.TYPE) {
+            if (depth >= MAX_DEPTH) return EntryResult.HALT;
+            pushCompound();
+        }
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public @NotNull ValueResult visitRootEntry(final @NotNull TagType<?> type) {
+        for (int i = 0; i < depth; i++) {
+            frames[i].clear();
+        }
+        depth = 0;
+        result = null;
+        if (type == CompoundTag.TYPE) pushCompound();
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visitContainerEnd() {
+        final Frame frame = frames[--depth];
+        final Tag tag = frame.build();
+        frame.clear();
+        return add(tag);
+    }
+
+    /**
+     * A filter for compound entries, which is given the type and name of
+     * every entry before its value is read.
+     */
+    @FunctionalInterface
+    public interface EntryFilter {
+
+        /**
+         * Checks if the entry with the given name and type should be
+         * collected.
+         *
+         * @param depth the depth of the compound holding the entry
+         * @param name the name of the entry
+         * @param type the type of the entry
+         * @return true to collect the entry, or false to skip it
+         */
+        boolean test(final int depth, final @NotNull String name, final @NotNull TagType<?> type);
+    }
+
+    /**
+     * A transformer for compound entries, which is given the value of every
+     * entry once it has been built.
+     */
+    @FunctionalInterface
+    public interface EntryTransformer {
+
+        /**
+         * Transforms the value of the entry with the given name.
+         *
+         * @param depth the depth of the compound holding the entry
+         * @param name the name of the entry
+         * @param value the value of the entry
+         * @return the value to put in the compound, or null to drop the entry
+         */
+        @Nullable Tag transform(final int depth, final @NotNull String name, final @NotNull Tag value);
+    }
+
+    private static final class Frame {
+
+        @Nullable ArrayPMap.Collector compound;
+        @Nullable String name;
+        int elementType;
+        int count;
+        Tag@Nullable[] tags;
+        byte@Nullable[] bytes;
+        short@Nullable[] shorts;
+        int@Nullable[] ints;
+        long@Nullable[] longs;
+        float@Nullable[] floats;
+        double@Nullable[] doubles;
+
+        Tag build() {
+            if (compound != null) {
+                final PMap<String, Tag> data = compound.build();
+                return data.isEmpty() ? CompoundTag.EMPTY : new ImmutableCompoundTagImpl(data);
+            }
+            if (bytes != null) return new ImmutableListTagImpl(ByteListData.wrap(bytes), ByteTag.ID);
+            if (shorts != null) return new ImmutableListTagImpl(ShortListData.wrap(shorts), ShortTag.ID);
+            if (ints != null) return new ImmutableListTagImpl(IntListData.wrap(ints), IntTag.ID);
+            if (longs != null) return new ImmutableListTagImpl(LongListData.wrap(longs), LongTag.ID);
+            if (floats != null) return new ImmutableListTagImpl(FloatListData.wrap(floats), FloatTag.ID);
+            if (doubles != null) return new ImmutableListTagImpl(DoubleListData.wrap(doubles), DoubleTag.ID);
+            return new ImmutableListTagImpl(TreePVector.from(Arrays.asList(tags)), elementType);
+        }
+
+        void clear() {
+            compound = null;
+            name = null;
+            count = 0;
+            tags = null;
+            bytes = null;
+            shorts = null;
+            ints = null;
+            longs = null;
+            floats = null;
+            doubles = null;
+        }
+    }
+}
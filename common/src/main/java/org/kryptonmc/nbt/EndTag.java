@@ -90,6 +90,11 @@ public final class EndTag implements ScopedTag<@NotNull EndTag> {
         // Nothing to write for end tags
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 0;
+    }
+
     @Override
     public void visit(final @NotNull TagVisitor visitor) {
         visitor.visitEnd(this);
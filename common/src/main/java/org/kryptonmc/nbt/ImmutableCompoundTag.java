@@ -8,9 +8,10 @@
  */
 package org.kryptonmc.nbt;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
-import org.pcollections.OrderedPMap;
 
 /**
  * An immutable compound tag.
@@ -26,7 +27,38 @@ public sealed interface ImmutableCompoundTag extends ScopedCompoundTag<Immutable
     static @NotNull ImmutableCompoundTag of(final @NotNull Map<? extends @NotNull String, ? extends @NotNull Tag> data) {
         // Optimization: If the data is empty, we can just return the empty compound.
         if (data.isEmpty()) return EMPTY;
-        return new ImmutableCompoundTagImpl(OrderedPMap.from(data));
+        return new ImmutableCompoundTagImpl(ArrayPMap.from(data));
+    }
+
+    /**
+     * Creates a new immutable compound tag from the serialized compound at
+     * the position of the given buffer, which only decodes its entries when
+     * they are first accessed.
+     *
+     * <p>The buffer must hold the payload of the compound, without the type
+     * and name that precede it at the root, and its position is advanced past
+     * the end of the compound. Creating the tag only makes a single pass over
+     * the compound to find its entries, which is far cheaper than decoding
+     * it, so this is ideal for reading a few entries from large compounds.
+     * Writing the tag copies any entries that have not been decoded straight
+     * from the buffer.</p>
+     *
+     * <p>The returned tag reads from the buffer for as long as it is in use,
+     * so the contents of the buffer must not be modified whilst it is.</p>
+     *
+     * <p>Only the structure of the compound is checked up front. Errors in
+     * the values of entries, such as malformed strings, are only found when
+     * those entries are decoded, and are thrown as
+     * {@link java.io.UncheckedIOException}s from the method that accessed
+     * them, which includes {@code equals}, {@code hashCode} and iteration.</p>
+     *
+     * @param data the buffer to read from
+     * @return a new lazy compound tag
+     * @throws IOException if the compound is truncated or malformed
+     * @see org.kryptonmc.nbt.io.TagIO#readLazy(byte[], org.kryptonmc.nbt.io.TagCompression)
+     */
+    static @NotNull ImmutableCompoundTag lazy(final @NotNull ByteBuffer data) throws IOException {
+        return LazyPMap.load(data);
     }
 
     /**
@@ -11,7 +11,6 @@ package org.kryptonmc.nbt;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
-import org.pcollections.OrderedPMap;
 import org.pcollections.PMap;
 
 final class ImmutableCompoundTagImpl extends AbstractCompoundTag<ImmutableCompoundTag> implements ImmutableCompoundTag {
@@ -77,7 +76,7 @@ final class ImmutableCompoundTagImpl extends AbstractCompoundTag<ImmutableCompou
 
         @Override
         public @NotNull ImmutableCompoundTag build() {
-            return new ImmutableCompoundTagImpl(OrderedPMap.from(data));
+            return new ImmutableCompoundTagImpl(ArrayPMap.from(data));
         }
     }
 }
@@ -10,7 +10,6 @@ package org.kryptonmc.nbt;
 
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
-import org.pcollections.TreePVector;
 
 /**
  * An immutable list tag.
@@ -28,7 +27,7 @@ public sealed interface ImmutableListTag extends ScopedListTag<ImmutableListTag>
     static @NotNull ImmutableListTag of(final @NotNull List<? extends @NotNull Tag> data, final int elementType) {
         // Optimization: For empty data, the element type is always EndTag, so we can just return the empty list.
         if (data.isEmpty()) return EMPTY;
-        return new ImmutableListTagImpl(TreePVector.from(data), elementType);
+        return new ImmutableListTagImpl(ImmutableListTagImpl.sequence(data, elementType), elementType);
     }
 
     /**
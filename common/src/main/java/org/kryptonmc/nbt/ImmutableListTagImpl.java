@@ -26,6 +26,11 @@ final class ImmutableListTagImpl extends AbstractListTag<ImmutableListTag> imple
         this.elementType = elementType;
     }
 
+    static PSequence<Tag> sequence(final List<? extends Tag> data, final int elementType) {
+        final PSequence<Tag> primitive = PrimitiveListData.from(elementType, data);
+        return primitive != null ? primitive : TreePVector.from(data);
+    }
+
     @Override
     public int elementType() {
         return elementType;
@@ -141,7 +146,7 @@ final class ImmutableListTagImpl extends AbstractListTag<ImmutableListTag> imple
 
         @Override
         public @NotNull ImmutableListTag build() {
-            return new ImmutableListTagImpl(TreePVector.from(data), elementType);
+            return new ImmutableListTagImpl(sequence(data, elementType), elementType);
         }
     }
 }
@@ -0,0 +1,398 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.KeyInterner;
+import org.kryptonmc.nbt.util.Types;
+import org.pcollections.AbstractUnmodifiableMap;
+import org.pcollections.PMap;
+
+/**
+ * A persistent map over the serialized form of a compound, which only decodes
+ * its values when they are first accessed.
+ *
+ * <p>Creating the map makes a single pass over the compound, which records
+ * the key, type and position of every entry, and skips over the values
+ * without decoding them. Nested compounds are decoded as lazy maps of their
+ * own, so reading a few values from deep within a huge compound only ever
+ * decodes those values.</p>
+ *
+ * <p>Values are decoded at most once, and it is safe for multiple threads to
+ * access the map at once. Writing the map copies the serialized form of any
+ * entries that have not been decoded, rather than encoding them again.</p>
+ *
+ * <p>Indexing only checks the structure of the compound, so that every entry
+ * can be found. Errors in the values themselves, such as malformed strings,
+ * are only found when those values are decoded, and are thrown as
+ * {@link UncheckedIOException}s from whatever accessed them.</p>
+ *
+ * <p>If a key appears more than once, the map keeps the position of its first
+ * occurrence and the value of its last, as eager loading does. Writing the map
+ * drops the shadowed entries.</p>
+ *
+ * <p>Modifying the map decodes every entry, and returns a {@link ArrayPMap},
+ * as the result no longer matches the serialized form.</p>
+ */
+final class LazyPMap extends AbstractUnmodifiableMap<String, Tag> implements PMap<String, Tag> {
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Tag[].class);
+    private static final int MAX_DEPTH = 512;
+
+    // Only ever read with absolute gets, so this can be shared by every map over the same data.
+    private final ByteBuffer source;
+    private final int depth;
+    private final String[] keys;
+    private final byte[] types;
+    // The position of the type byte of each entry, and the position just after its value. Entries are usually contiguous, but
+    // not when a duplicate key replaced an earlier entry with a later one.
+    private final int[] starts;
+    private final int[] ends;
+    private final int end;
+    private final Tag[] values;
+    private final int@Nullable[] index;
+
+    private LazyPMap(final ByteBuffer source, final int depth, final String[] keys, final byte[] types, final int[] starts, final int[] ends,
+                     final int end, final int@Nullable[] index) {
+        this.source = source;
+        this.depth = depth;
+        this.keys = keys;
+        this.types = types;
+        this.starts = starts;
+        this.ends = ends;
+        this.end = end;
+        values = new Tag[keys.length];
+        this.index = index;
+    }
+
+    /**
+     * Loads a lazy compound from the serialized compound at the position of
+     * the given buffer, advancing the position of the buffer past it.
+     *
+     * @param data the buffer to load from
+     * @return the compound
+     * @throws IOException if the data is truncated or malformed
+     */
+    static @NotNull ImmutableCompoundTag load(final @NotNull ByteBuffer data) throws IOException {
+        final LazyPMap map = index(data.duplicate().order(ByteOrder.BIG_ENDIAN), data.position(), 0);
+        data.position(map.end);
+        return map.isEmpty() ? CompoundTag.EMPTY : new ImmutableCompoundTagImpl(map);
+    }
+
+    /**
+     * Indexes the serialized compound that starts at the given position of the
+     * given buffer.
+     *
+     * @param source the buffer holding the serialized data, in big-endian order
+     * @param position the position of the first entry of the compound
+     * @param depth the depth of the compound
+     * @return the lazy map
+     * @throws IOException if the data is truncated or malformed
+     */
+    static @NotNull LazyPMap index(final @NotNull ByteBuffer source, final int position, final int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new RuntimeException("Depth too high! Given depth " + depth + " is higher than maximum depth " + MAX_DEPTH + "!");
+        try {
+            String[] keys = new String[8];
+            byte[] types = new byte[8];
+            int[] starts = new int[8];
+            int[] ends = new int[8];
+            int@Nullable[] index = null;
+            int size = 0;
+            int cursor = position;
+            while (true) {
+                final byte type = source.get(cursor);
+                if (type == EndTag.ID) break;
+                final int keyLength = source.getShort(cursor + 1) & 0xFFFF;
+                final String key = readKey(source, cursor + 3, keyLength);
+                final int next = skip(source, cursor + 3 + keyLength, type, depth + 1);
+                // Like ArrayPMap.Collector, a duplicate key keeps its first position, but takes the last entry.
+                final int existing = indexOf(keys, size, index, key);
+                if (existing != -1) {
+                    types[existing] = type;
+                    starts[existing] = cursor;
+                    ends[existing] = next;
+                    cursor = next;
+                    continue;
+                }
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    types = Arrays.copyOf(types, size * 2);
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                keys[size] = key;
+                types[size] = type;
+                starts[size] = cursor;
+                ends[size] = next;
+                if (index != null && (size + 1) * 2 <= index.length) {
+                    ArrayPMap.insert(index, key, size);
+                } else if (size + 1 > ArrayPMap.MAX_SIZE) {
+                    index = ArrayPMap.buildIndex(keys, size + 1);
+                }
+                size++;
+                cursor = next;
+            }
+            // The index only refers to positions below the size, so it's still valid for the trimmed arrays.
+            return new LazyPMap(source, depth, Arrays.copyOf(keys, size), Arrays.copyOf(types, size), Arrays.copyOf(starts, size),
+                    Arrays.copyOf(ends, size), cursor + 1, index);
+        } catch (final IndexOutOfBoundsException exception) {
+            throw new EOFException("Compound extends past the end of the data!");
+        }
+    }
+
+    private static String readKey(final ByteBuffer source, final int position, final int length) throws IOException {
+        if (source.hasArray()) return KeyInterner.shared().intern(source.array(), source.arrayOffset() + position, length);
+        final byte[] bytes = new byte[length];
+        source.get(position, bytes);
+        return KeyInterner.shared().intern(bytes, 0, length);
+    }
+
+    // This does the same as TagType.skip, but over the buffer directly, as we need to know where every value ends.
+    private static int skip(final ByteBuffer source, final int position, final int type, final int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new RuntimeException("Depth too high! Given depth " + depth + " is higher than maximum depth " + MAX_DEPTH + "!");
+        if (Types.of(type) instanceof final TagType.StaticSize<?> staticType) return position + staticType.size();
+        return switch (type) {
+            case StringTag.ID -> position + Short.BYTES + (source.getShort(position) & 0xFFFF);
+            case ByteArrayTag.ID -> position + Integer.BYTES + checkedLength(source, position, Byte.BYTES);
+            case IntArrayTag.ID -> position + Integer.BYTES + checkedLength(source, position, Integer.BYTES);
+            case LongArrayTag.ID -> position + Integer.BYTES + checkedLength(source, position, Long.BYTES);
+            case ListTag.ID -> {
+                final int elementType = source.get(position);
+                final int size = source.getInt(position + 1);
+                int cursor = position + Byte.BYTES + Integer.BYTES;
+                if (size <= 0) yield cursor;
+                if (elementType == EndTag.ID) throw new IOException("Missing required type for list tag!");
+                if (Types.of(elementType) instanceof final TagType.StaticSize<?> staticType) {
+                    yield cursor + checkedLength(size, staticType.size());
+                }
+                for (int i = 0; i < size; i++) {
+                    cursor = skip(source, cursor, elementType, depth + 1);
+                }
+                yield cursor;
+            }
+            case CompoundTag.ID -> {
+                int cursor = position;
+                while (true) {
+                    final byte entryType = source.get(cursor);
+                    if (entryType == EndTag.ID) yield cursor + 1;
+                    cursor = skip(source, cursor + 3 + (source.getShort(cursor + 1) & 0xFFFF), entryType, depth + 1);
+                }
+            }
+            default -> throw new IOException("Unknown tag type " + type + "!");
+        };
+    }
+
+    private static int checkedLength(final ByteBuffer source, final int position, final int elementSize) throws IOException {
+        return checkedLength(source.getInt(position), elementSize);
+    }
+
+    private static int checkedLength(final int length, final int elementSize) throws IOException {
+        // Anything that doesn't fit in an int can't fit in the buffer either, so it must be truncated or malformed.
+        if (length < 0 || length > Integer.MAX_VALUE / elementSize) throw new IOException("Invalid length " + length + "!");
+        return length * elementSize;
+    }
+
+    private static int indexOf(final String[] keys, final int size, final int@Nullable[] index, final Object key) {
+        if (index != null) return key == null ? -1 : ArrayPMap.find(index, keys, key);
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private int indexOf(final Object key) {
+        return indexOf(keys, keys.length, index, key);
+    }
+
+    private int valueStart(final int position) {
+        return starts[position] + 3 + (source.getShort(starts[position] + 1) & 0xFFFF);
+    }
+
+    private Tag value(final int position) {
+        final Tag existing = (Tag) VALUES.getAcquire(values, position);
+        if (existing != null) return existing;
+        final Tag decoded;
+        try {
+            decoded = decode(position);
+        } catch (final IOException exception) {
+            // Indexing only checks the structure of the data, not the contents of its values, such as whether strings are valid
+            // modified UTF-8, so malformed values only show up here, when they are first decoded.
+            throw new UncheckedIOException(exception);
+        }
+        // If another thread beat us to it, use its value, so that everyone sees the same tag.
+        final Tag witness = (Tag) VALUES.compareAndExchangeRelease(values, position, null, decoded);
+        return witness != null ? witness : decoded;
+    }
+
+    private Tag decode(final int position) throws IOException {
+        final int start = valueStart(position);
+        if (types[position] == CompoundTag.ID) {
+            final LazyPMap nested = index(source, start, depth + 1);
+            return nested.isEmpty() ? CompoundTag.EMPTY : new ImmutableCompoundTagImpl(nested);
+        }
+        return Types.of(types[position]).load(BufferedTagInput.of(source.slice(start, ends[position] - start)), depth + 1);
+    }
+
+    /**
+     * Gets the size of the serialized compound, including the end tag.
+     *
+     * @return the size in bytes
+     */
+    int sizeInBytes() {
+        int size = Byte.BYTES;
+        for (int i = 0; i < values.length; i++) {
+            final Tag value = (Tag) VALUES.getAcquire(values, i);
+            // Decoded values may be mutable arrays, which can change size.
+            size += value == null ? ends[i] - starts[i] : valueStart(i) - starts[i] + value.sizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the entries of this map, followed by the end tag, to the given
+     * output, copying runs of adjacent entries that haven't been decoded
+     * directly from the serialized data.
+     *
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final @NotNull DataOutput output) throws IOException {
+        int runStart = 0;
+        int runEnd = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Entries replaced by a later duplicate leave gaps, which end the run, so they are never written.
+            if (starts[i] != runEnd) {
+                copy(output, runStart, runEnd);
+                runStart = starts[i];
+            }
+            final Tag value = (Tag) VALUES.getAcquire(values, i);
+            if (value != null) {
+                // Copy everything up to the value, including this entry's type and key, then write the value itself.
+                final int valueStart = valueStart(i);
+                copy(output, runStart, valueStart);
+                value.write(output);
+                runStart = ends[i];
+            }
+            runEnd = ends[i];
+        }
+        copy(output, runStart, runEnd);
+        output.writeByte(EndTag.ID);
+    }
+
+    private void copy(final DataOutput output, final int from, final int to) throws IOException {
+        if (from >= to) return;
+        if (source.hasArray()) {
+            output.write(source.array(), source.arrayOffset() + from, to - from);
+            return;
+        }
+        final byte[] bytes = new byte[Math.min(to - from, 8192)];
+        for (int position = from; position < to; position += bytes.length) {
+            final int length = Math.min(bytes.length, to - position);
+            source.get(position, bytes, 0, length);
+            output.write(bytes, 0, length);
+        }
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    public @Nullable Tag get(final Object key) {
+        final int position = indexOf(key);
+        return position == -1 ? null : value(position);
+    }
+
+    @Override
+    public void forEach(final @NotNull BiConsumer<? super String, ? super Tag> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], value(i));
+        }
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> plus(final @NotNull String key, final @NotNull Tag value) {
+        return ArrayPMap.from(this).plus(key, value);
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> plusAll(final @NotNull Map<? extends String, ? extends Tag> map) {
+        return ArrayPMap.from(this).plusAll(map);
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> minus(final @NotNull Object key) {
+        if (!containsKey(key)) return this;
+        return ArrayPMap.from(this).minus(key);
+    }
+
+    @Override
+    public @NotNull PMap<String, Tag> minusAll(final @NotNull Collection<?> keys) {
+        return ArrayPMap.from(this).minusAll(keys);
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Tag>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Entry<String, Tag>> iterator() {
+                return new Iterator<>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, Tag> next() {
+                        if (position >= keys.length) throw new NoSuchElementException();
+                        final Entry<String, Tag> result = Map.entry(keys[position], value(position));
+                        position++;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
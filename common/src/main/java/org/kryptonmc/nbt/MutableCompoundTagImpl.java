@@ -11,7 +11,6 @@ package org.kryptonmc.nbt;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
-import org.pcollections.OrderedPMap;
 
 final class MutableCompoundTagImpl extends AbstractCompoundTag<MutableCompoundTag> implements MutableCompoundTag {
 
@@ -68,7 +67,7 @@ final class MutableCompoundTagImpl extends AbstractCompoundTag<MutableCompoundTa
 
     @Override
     public @NotNull ImmutableCompoundTag asImmutable() {
-        return new ImmutableCompoundTagImpl(OrderedPMap.from(data));
+        return new ImmutableCompoundTagImpl(ArrayPMap.from(data));
     }
 
     @Override
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.pcollections.PSequence;
+
+/**
+ * The data of an immutable list of numeric tags, stored as a flat array of
+ * primitive values.
+ *
+ * <p>Lists of numbers, such as positions and rotations, are very common, and
+ * storing them as tags costs an object per element, as well as the nodes of
+ * the sequence holding them.</p>
+ */
+sealed interface PrimitiveListData extends PSequence<Tag>
+        permits ByteListData, ShortListData, IntListData, LongListData, FloatListData, DoubleListData {
+
+    /**
+     * Loads the given amount of values of the given element type from the
+     * given input.
+     *
+     * @param elementType the element type
+     * @param input the input to load from
+     * @param size the amount of values
+     * @return the data, or null if the element type is not numeric
+     * @throws IOException if an I/O error occurs
+     */
+    static @Nullable PSequence<Tag> load(final int elementType, final @NotNull DataInput input, final int size) throws IOException {
+        return switch (elementType) {
+            case ByteTag.ID -> ByteListData.load(input, size);
+            case ShortTag.ID -> ShortListData.load(input, size);
+            case IntTag.ID -> IntListData.load(input, size);
+            case LongTag.ID -> LongListData.load(input, size);
+            case FloatTag.ID -> FloatListData.load(input, size);
+            case DoubleTag.ID -> DoubleListData.load(input, size);
+            default -> null;
+        };
+    }
+
+    /**
+     * Creates data holding the values of the given tags.
+     *
+     * @param elementType the element type
+     * @param tags the tags
+     * @return the data, or null if the element type is not numeric, or any
+     * of the tags are not of the element type
+     */
+    static @Nullable PSequence<Tag> from(final int elementType, final @NotNull List<? extends Tag> tags) {
+        return switch (elementType) {
+            case ByteTag.ID -> ByteListData.from(tags);
+            case ShortTag.ID -> ShortListData.from(tags);
+            case IntTag.ID -> IntListData.from(tags);
+            case LongTag.ID -> LongListData.from(tags);
+            case FloatTag.ID -> FloatListData.from(tags);
+            case DoubleTag.ID -> DoubleListData.from(tags);
+            default -> null;
+        };
+    }
+
+    /**
+     * Writes all the values, without any header, to the given output.
+     *
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void writeValues(@NotNull DataOutput output) throws IOException;
+}
@@ -12,6 +12,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
 import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
 import org.kryptonmc.nbt.visitor.TagVisitor;
 
@@ -40,13 +41,13 @@ record StringTagImpl(@NotNull String value) implements StringTag {
 
             @Override
             public @NotNull StringTag load(final @NotNull DataInput input, final int depth) throws IOException {
-                return StringTag.of(input.readUTF());
+                return StringTag.of(ModifiedUtf8.read(input));
             }
 
             @Override
             public StreamingTagVisitor.@NotNull ValueResult parse(final @NotNull DataInput input,
                                                                   final @NotNull StreamingTagVisitor visitor) throws IOException {
-                return visitor.visit(input.readUTF());
+                return visitor.visit(ModifiedUtf8.read(input));
             }
 
             @Override
@@ -68,7 +69,12 @@ record StringTagImpl(@NotNull String value) implements StringTag {
 
     @Override
     public void write(final @NotNull DataOutput output) throws IOException {
-        output.writeUTF(value);
+        ModifiedUtf8.write(output, value);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        return Short.BYTES + ModifiedUtf8.encodedLength(value);
     }
 
     @Override
@@ -42,6 +42,17 @@ public sealed interface Tag permits ScopedTag, CollectionTag, NumberTag, StringT
      */
     void write(final @NotNull DataOutput output) throws IOException;
 
+    /**
+     * Gets the exact amount of bytes that writing this tag's contents with
+     * {@link #write(DataOutput)} will write.
+     *
+     * <p>This does not include the ID or name that precede the contents of a
+     * named tag.</p>
+     *
+     * @return the size of this tag's contents in bytes
+     */
+    int sizeInBytes();
+
     /**
      * Visits this tag's contents using the given visitor.
      *
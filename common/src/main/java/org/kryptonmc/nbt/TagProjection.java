@@ -0,0 +1,266 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.io.KeyInterner;
+import org.kryptonmc.nbt.util.Types;
+import org.pcollections.PMap;
+import org.pcollections.PSequence;
+import org.pcollections.TreePVector;
+
+/**
+ * A tree of the entries to keep when loading a compound, so that everything
+ * else can be skipped without being decoded.
+ *
+ * <p>Every projection says, for each name, whether the entry with that name
+ * is skipped, loaded in full, or loaded with another projection. A nested
+ * projection applies to the entry if it is a compound, and to all the
+ * compounds in it if it is a list. Names that are not given explicitly are
+ * skipped, unless the projection includes all other entries.</p>
+ *
+ * <p>Skipped entries are skipped with {@link TagType#skip(DataInput)}, so
+ * none of the strings, arrays or nested tags in them are ever decoded.</p>
+ *
+ * <p>Projections are immutable, and are meant to be built once and reused.
+ * Instances of this class are thread-safe.</p>
+ *
+ * @see org.kryptonmc.nbt.io.TagIO#read(java.io.InputStream, org.kryptonmc.nbt.io.TagCompression, TagProjection)
+ */
+public final class TagProjection {
+
+    /**
+     * The projection that loads everything.
+     */
+    public static final @NotNull TagProjection ALL = new TagProjection(Map.of(), null);
+    // Never returned, only used to mark explicitly excluded names.
+    private static final TagProjection EXCLUDED = new TagProjection(Map.of(), null);
+
+    private final Map<String, TagProjection> entries;
+    private final @Nullable TagProjection others;
+
+    private TagProjection(final Map<String, TagProjection> entries, final @Nullable TagProjection others) {
+        this.entries = entries;
+        this.others = others;
+    }
+
+    /**
+     * Creates a new projection that only loads the entries with the given
+     * names, in full.
+     *
+     * @param names the names of the entries to load
+     * @return a new projection
+     */
+    public static @NotNull TagProjection including(final @NotNull String@NotNull... names) {
+        final Builder builder = builder();
+        for (final String name : names) {
+            builder.include(name);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new projection that loads everything except the entries with
+     * the given names.
+     *
+     * @param names the names of the entries to skip
+     * @return a new projection
+     */
+    public static @NotNull TagProjection excluding(final @NotNull String@NotNull... names) {
+        final Builder builder = builder().includeOthers();
+        for (final String name : names) {
+            builder.exclude(name);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new builder for building a projection.
+     *
+     * @return a new builder
+     */
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the projection for the entry with the given name.
+     *
+     * @param name the name of the entry
+     * @return the projection for the entry, which is {@link #ALL} if it is
+     * loaded in full, or null if it is skipped
+     */
+    public @Nullable TagProjection get(final @NotNull String name) {
+        if (this == ALL) return ALL;
+        final TagProjection result = entries.getOrDefault(name, others);
+        return result == EXCLUDED ? null : result;
+    }
+
+    /**
+     * Loads the payload of a compound tag from the given input, keeping only
+     * the entries this projection selects.
+     *
+     * <p>This is the projected counterpart of
+     * {@link TagType#load(DataInput, int)} for compounds.</p>
+     *
+     * @param input the input to load from
+     * @param depth the current depth
+     * @return the loaded compound
+     * @throws IOException if an I/O error occurs
+     */
+    public @NotNull CompoundTag load(final @NotNull DataInput input, final int depth) throws IOException {
+        if (this == ALL) return CompoundTag.TYPE.load(input, depth);
+        if (depth > 512) throw new RuntimeException("Depth too high! Given depth " + depth + " is higher than maximum depth 512!");
+        final ArrayPMap.Collector result = new ArrayPMap.Collector();
+        for (int type = input.readByte(); type != EndTag.ID; type = input.readByte()) {
+            final String name = KeyInterner.shared().read(input);
+            final TagProjection projection = get(name);
+            if (projection == null) {
+                Types.of(type).skip(input);
+                continue;
+            }
+            result.put(name, projection.loadEntry(type, input, depth + 1));
+        }
+        final PMap<String, Tag> data = result.build();
+        return data.isEmpty() ? CompoundTag.EMPTY : new ImmutableCompoundTagImpl(data);
+    }
+
+    private Tag loadEntry(final int type, final DataInput input, final int depth) throws IOException {
+        if (this == ALL) return Types.of(type).load(input, depth);
+        return switch (type) {
+            case CompoundTag.ID -> load(input, depth);
+            case ListTag.ID -> loadList(input, depth);
+            default -> Types.of(type).load(input, depth);
+        };
+    }
+
+    private ListTag loadList(final DataInput input, final int depth) throws IOException {
+        if (depth > 512) throw new RuntimeException("Depth too high! Given depth " + depth + " is higher than maximum depth 512!");
+        final int id = input.readByte();
+        final int size = input.readInt();
+        if (id == EndTag.ID && size > 0) throw new RuntimeException("Missing required type for list tag!");
+        final PSequence<Tag> primitive = PrimitiveListData.load(id, input, size);
+        if (primitive != null) return new ImmutableListTagImpl(primitive, id);
+        final List<Tag> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            data.add(loadEntry(id, input, depth + 1));
+        }
+        return new ImmutableListTagImpl(TreePVector.from(data), id);
+    }
+
+    /**
+     * A builder for building projections.
+     */
+    public static final class Builder {
+
+        private final Map<String, TagProjection> entries = new HashMap<>();
+        private @Nullable TagProjection others;
+
+        private Builder() {
+        }
+
+        /**
+         * Loads the entry with the given name in full.
+         *
+         * @param name the name of the entry
+         * @return this builder
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder include(final @NotNull String name) {
+            return include(name, ALL);
+        }
+
+        /**
+         * Loads the entry with the given name with the projection built by
+         * the given action.
+         *
+         * @param name the name of the entry
+         * @param action the action to build the projection for the entry
+         * @return this builder
+         */
+        @Contract(value = "_, _ -> this", mutates = "this")
+        public @NotNull Builder include(final @NotNull String name, final @NotNull Consumer<@NotNull Builder> action) {
+            final Builder builder = new Builder();
+            action.accept(builder);
+            return include(name, builder.build());
+        }
+
+        /**
+         * Loads the entry with the given name with the given projection.
+         *
+         * @param name the name of the entry
+         * @param projection the projection for the entry
+         * @return this builder
+         */
+        @Contract(value = "_, _ -> this", mutates = "this")
+        public @NotNull Builder include(final @NotNull String name, final @NotNull TagProjection projection) {
+            entries.put(name, projection);
+            return this;
+        }
+
+        /**
+         * Skips the entry with the given name, even if all other entries are
+         * included.
+         *
+         * @param name the name of the entry
+         * @return this builder
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder exclude(final @NotNull String name) {
+            entries.put(name, EXCLUDED);
+            return this;
+        }
+
+        /**
+         * Loads all the entries that are not given explicitly in full.
+         *
+         * @return this builder
+         */
+        @Contract(value = "-> this", mutates = "this")
+        public @NotNull Builder includeOthers() {
+            others = ALL;
+            return this;
+        }
+
+        /**
+         * Loads all the entries that are not given explicitly with the
+         * projection built by the given action.
+         *
+         * @param action the action to build the projection for the entries
+         * @return this builder
+         */
+        @Contract(value = "_ -> this", mutates = "this")
+        public @NotNull Builder includeOthers(final @NotNull Consumer<@NotNull Builder> action) {
+            final Builder builder = new Builder();
+            action.accept(builder);
+            others = builder.build();
+            return this;
+        }
+
+        /**
+         * Builds the projection.
+         *
+         * @return the built projection
+         */
+        public @NotNull TagProjection build() {
+            // Everything is loaded in full either way, so we might as well take the fast path.
+            if (others == ALL && entries.values().stream().allMatch(projection -> projection == ALL)) return ALL;
+            return new TagProjection(Map.copyOf(entries), others);
+        }
+    }
+}
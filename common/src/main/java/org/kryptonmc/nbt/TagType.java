@@ -104,6 +104,23 @@ public interface TagType<T extends Tag> {
      */
     @NotNull T load(final @NotNull DataInput input, final int depth) throws IOException;
 
+    /**
+     * Loads a tag of this type from the given input data, in the same way as
+     * {@link #load(DataInput, int)}, except that compounds and lists, and any
+     * compounds and lists they contain, are loaded as mutable tags.
+     *
+     * <p>This is much cheaper than loading a tag and then converting it with
+     * {@code asMutable}, as the tag is only built once.</p>
+     *
+     * @param input the input to read the tag from
+     * @param depth the current depth of a recursive read
+     * @return the loaded tag
+     * @throws IOException if an I/O error occurs
+     */
+    default @NotNull T loadMutable(final @NotNull DataInput input, final int depth) throws IOException {
+        return load(input, depth);
+    }
+
     /**
      * Loads a tag of this type from the given input data and calls the
      * corresponding visit method on the given visitor with the loaded data.
@@ -0,0 +1,492 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A buffered {@link DataInput} designed for reading NBT data.
+ *
+ * <p>Primitives are decoded in big-endian order straight from an internal
+ * buffer, rather than being assembled one byte at a time from the underlying
+ * stream, and arrays are copied out of the buffer in bulk.</p>
+ *
+ * <p>Inputs created from a stream fill a reusable buffer from that stream as
+ * it is consumed. Inputs created from a byte array or a {@link ByteBuffer}
+ * read directly from the given data, without copying it. Inputs created from
+ * a file map the file in to memory and read directly from the mapping.</p>
+ *
+ * <p>This input reads ahead of the data it has returned, so the underlying
+ * stream should not be used for anything else while this input is in use.
+ * Instances of this class are not thread-safe.</p>
+ */
+public final class BufferedTagInput implements DataInput, Closeable {
+
+    static final int BUFFER_SIZE = 16384;
+    private static final long MAPPING_WINDOW = Integer.MAX_VALUE;
+    private static final ThreadLocal<byte[]> BUFFER_CACHE = new ThreadLocal<>();
+
+    private final @Nullable InputStream source;
+    private final @Nullable FileChannel channel;
+    private final long mappingWindow;
+    private ByteBuffer buffer;
+    // The offset in the file of the start of the currently mapped window, only used when reading from a channel.
+    private long windowStart;
+    private byte[] scratch;
+
+    private BufferedTagInput(final @Nullable InputStream source, final @Nullable FileChannel channel, final long mappingWindow,
+                             final ByteBuffer buffer) {
+        this.source = source;
+        this.channel = channel;
+        this.mappingWindow = mappingWindow;
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new buffered input that reads from the given stream.
+     *
+     * @param source the stream to read from
+     * @return a new buffered input
+     */
+    public static @NotNull BufferedTagInput of(final @NotNull InputStream source) {
+        return new BufferedTagInput(source, null, 0, ByteBuffer.wrap(acquireBuffer()).limit(0));
+    }
+
+    /**
+     * Creates a new buffered input that reads directly from the given data.
+     *
+     * @param data the data to read
+     * @return a new buffered input
+     */
+    public static @NotNull BufferedTagInput of(final byte@NotNull[] data) {
+        return of(data, 0, data.length);
+    }
+
+    /**
+     * Creates a new buffered input that reads directly from the given range
+     * of the given data.
+     *
+     * @param data the data to read
+     * @param offset the offset to start reading from
+     * @param length the amount of bytes that may be read
+     * @return a new buffered input
+     */
+    public static @NotNull BufferedTagInput of(final byte@NotNull[] data, final int offset, final int length) {
+        return new BufferedTagInput(null, null, 0, ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * Creates a new buffered input that reads directly from the remaining
+     * bytes of the given buffer.
+     *
+     * <p>The position, limit and byte order of the given buffer are not
+     * modified by reading from the returned input.</p>
+     *
+     * @param data the buffer to read
+     * @return a new buffered input
+     */
+    public static @NotNull BufferedTagInput of(final @NotNull ByteBuffer data) {
+        return new BufferedTagInput(null, null, 0, data.duplicate());
+    }
+
+    /**
+     * Creates a new buffered input that reads from the file at the given path
+     * by mapping it in to memory.
+     *
+     * <p>The file is mapped read-only, in windows of up to 2 GiB, so files of
+     * any size can be read. Only the parts of the file that are actually read
+     * are paged in, which makes skipping over data very cheap.</p>
+     *
+     * <p>The file must not be modified whilst the returned input is in use.</p>
+     *
+     * @param path the path of the file to read
+     * @return a new buffered input
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull BufferedTagInput map(final @NotNull Path path) throws IOException {
+        return map(path, MAPPING_WINDOW);
+    }
+
+    /**
+     * Creates a new buffered input that reads from the file at the given path
+     * by mapping it in to memory, in windows of up to the given size.
+     *
+     * <p>This is only used directly by tests, which use tiny windows so that
+     * moving between windows can be tested without files larger than 2
+     * GiB. The window must be at least 8 bytes, so any primitive fits in
+     * it.</p>
+     *
+     * @param path the path of the file to read
+     * @param mappingWindow the maximum size of a mapped window
+     * @return a new buffered input
+     * @throws IOException if an I/O error occurs
+     */
+    static @NotNull BufferedTagInput map(final @NotNull Path path, final long mappingWindow) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BufferedTagInput(null, channel, mappingWindow, mapWindow(channel, 0, mappingWindow));
+        } catch (final IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    private static ByteBuffer mapWindow(final FileChannel channel, final long start, final long window) throws IOException {
+        final long size = Math.max(0, Math.min(channel.size() - start, window));
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    }
+
+    private void remap(final long start) throws IOException {
+        windowStart = start;
+        buffer = mapWindow(channel, start, mappingWindow).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static byte[] acquireBuffer() {
+        final byte[] cached = BUFFER_CACHE.get();
+        if (cached == null) return new byte[BUFFER_SIZE];
+        // We take the buffer out of the cache whilst it's in use, so nested inputs on the same thread never share one.
+        BUFFER_CACHE.set(null);
+        return cached;
+    }
+
+    /**
+     * Gets the position that the next byte will be read from in the data this
+     * input was created from.
+     *
+     * @return the position
+     */
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Ensures that at least the given amount of bytes are available in the
+     * buffer, filling it from the source if required.
+     *
+     * @param bytes the amount of bytes required
+     * @throws IOException if an I/O error occurs, or there are not enough
+     * bytes left in the input
+     */
+    private void require(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) fill(bytes);
+    }
+
+    private void fill(final int bytes) throws IOException {
+        if (channel != null) {
+            // The next window starts where we are now, so any unread bytes at the end of the old window are mapped again.
+            remap(windowStart + buffer.position());
+            if (buffer.remaining() < bytes) throw new EOFException();
+            return;
+        }
+        if (source == null) throw new EOFException();
+        buffer.compact();
+        final byte[] array = buffer.array();
+        int position = buffer.position();
+        while (position < bytes) {
+            final int read = source.read(array, position, array.length - position);
+            if (read < 0) {
+                buffer.limit(position).position(0);
+                throw new EOFException();
+            }
+            position += read;
+        }
+        buffer.limit(position).position(0);
+    }
+
+    @Override
+    public void readFully(final byte@NotNull[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(final byte@NotNull[] bytes, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+        while (true) {
+            final int available = Math.min(buffer.remaining(), end - position);
+            buffer.get(bytes, position, available);
+            position += available;
+            if (position == end) return;
+
+            // Anything larger than our buffer is read straight in to the destination, as buffering it would only cost us another copy.
+            if (source != null && end - position >= buffer.capacity()) {
+                while (position < end) {
+                    final int read = source.read(bytes, position, end - position);
+                    if (read < 0) throw new EOFException();
+                    position += read;
+                }
+                return;
+            }
+            fill(1);
+        }
+    }
+
+    @Override
+    public int skipBytes(final int bytes) throws IOException {
+        if (bytes <= 0) return 0;
+        final int buffered = Math.min(buffer.remaining(), bytes);
+        buffer.position(buffer.position() + buffered);
+        if (buffered == bytes) return buffered;
+        if (channel != null) {
+            final long current = windowStart + buffer.position();
+            final long target = Math.min(current + bytes - buffered, channel.size());
+            remap(target);
+            return buffered + (int) (target - current);
+        }
+        if (source == null) return buffered;
+
+        int skipped = buffered;
+        while (skipped < bytes) {
+            final long result = source.skip(bytes - skipped);
+            if (result > 0) {
+                skipped += (int) result;
+                continue;
+            }
+            // Some streams refuse to skip, so we fall back to reading and discarding through the buffer.
+            if (!hasRemaining()) return skipped;
+            final int discarded = Math.min(buffer.remaining(), bytes - skipped);
+            buffer.position(buffer.position() + discarded);
+            skipped += discarded;
+        }
+        return skipped;
+    }
+
+    /**
+     * Gets the next byte without consuming it.
+     *
+     * @return the next byte, as an unsigned value, or -1 if there are no
+     * bytes left to read
+     * @throws IOException if an I/O error occurs
+     */
+    public int peek() throws IOException {
+        if (!hasRemaining()) return -1;
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(Character.BYTES);
+        return buffer.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(Float.BYTES);
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Reads the given amount of ints in to the given array, converting them
+     * in bulk straight from the buffer.
+     *
+     * @param destination the array to read in to
+     * @param offset the offset to start writing to the array at
+     * @param length the amount of ints to read
+     * @throws IOException if an I/O error occurs
+     */
+    void readInts(final int@NotNull[] destination, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            require(Integer.BYTES);
+            final int count = Math.min(end - position, buffer.remaining() / Integer.BYTES);
+            if (buffer.hasArray()) {
+                PrimitiveArrays.decodeInts(buffer.array(), buffer.arrayOffset() + buffer.position(), destination, position, count);
+            } else {
+                buffer.asIntBuffer().get(destination, position, count);
+            }
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            position += count;
+        }
+    }
+
+    /**
+     * Reads the given amount of longs in to the given array, converting them
+     * in bulk straight from the buffer.
+     *
+     * @param destination the array to read in to
+     * @param offset the offset to start writing to the array at
+     * @param length the amount of longs to read
+     * @throws IOException if an I/O error occurs
+     */
+    void readLongs(final long@NotNull[] destination, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            require(Long.BYTES);
+            final int count = Math.min(end - position, buffer.remaining() / Long.BYTES);
+            if (buffer.hasArray()) {
+                PrimitiveArrays.decodeLongs(buffer.array(), buffer.arrayOffset() + buffer.position(), destination, position, count);
+            } else {
+                buffer.asLongBuffer().get(destination, position, count);
+            }
+            buffer.position(buffer.position() + count * Long.BYTES);
+            position += count;
+        }
+    }
+
+    @Override
+    public @Nullable String readLine() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while (true) {
+            if (!hasRemaining()) return builder.isEmpty() ? null : builder.toString();
+            final int next = buffer.get() & 0xFF;
+            if (next == '\n') return builder.toString();
+            if (next == '\r') {
+                // Consume the line feed of a CRLF pair if there is one.
+                if (hasRemaining() && buffer.get(buffer.position()) == '\n') buffer.get();
+                return builder.toString();
+            }
+            builder.append((char) next);
+        }
+    }
+
+    /**
+     * Checks if there are any bytes left to read, filling the buffer from the
+     * source if required.
+     *
+     * @return true if there are bytes left to read
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean hasRemaining() throws IOException {
+        if (buffer.hasRemaining()) return true;
+        try {
+            fill(1);
+            return true;
+        } catch (final EOFException exception) {
+            return false;
+        }
+    }
+
+    @Override
+    public @NotNull String readUTF() throws IOException {
+        return readUTF(KeyInterner.disabled());
+    }
+
+    /**
+     * Reads a string, preceded by its length, and gets its canonical string
+     * from the given interner.
+     *
+     * @param interner the interner
+     * @return the string
+     * @throws IOException if an I/O error occurs, or the data is not valid
+     * modified UTF-8
+     */
+    @NotNull String readUTF(final @NotNull KeyInterner interner) throws IOException {
+        final int length = readUnsignedShort();
+        if (buffer.hasArray() && length <= buffer.capacity()) {
+            // Decode straight from our buffer, which saves copying the string out first.
+            require(length);
+            final int position = buffer.position();
+            buffer.position(position + length);
+            return interner.intern(buffer.array(), buffer.arrayOffset() + position, length);
+        }
+        if (scratch == null || scratch.length < length) scratch = new byte[length];
+        readFully(scratch, 0, length);
+        return interner.intern(scratch, 0, length);
+    }
+
+    /**
+     * Reads a string, preceded by its length, without decoding it.
+     *
+     * <p>The returned buffer is a read-only view of the modified UTF-8 bytes
+     * of the string, which is usually a view of this input's own buffer, so
+     * it is only valid until the next read from this input.</p>
+     *
+     * @return the encoded string
+     * @throws IOException if an I/O error occurs
+     */
+    public @NotNull ByteBuffer readUTFBytes() throws IOException {
+        final int length = readUnsignedShort();
+        if (length <= buffer.capacity()) {
+            require(length);
+            final int position = buffer.position();
+            buffer.position(position + length);
+            return buffer.slice(position, length).asReadOnlyBuffer();
+        }
+        if (scratch == null || scratch.length < length) scratch = new byte[length];
+        readFully(scratch, 0, length);
+        return ByteBuffer.wrap(scratch, 0, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Closes this input and the stream or file it reads from, if any.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            buffer = ByteBuffer.allocate(0);
+            channel.close();
+            return;
+        }
+        if (source == null) return;
+        if (buffer.hasArray() && buffer.capacity() == BUFFER_SIZE) BUFFER_CACHE.set(buffer.array());
+        // Leave an empty buffer behind, so anything that tries to read after closing fails rather than reading recycled data.
+        buffer = ByteBuffer.allocate(0);
+        source.close();
+    }
+}
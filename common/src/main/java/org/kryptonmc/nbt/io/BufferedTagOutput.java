@@ -0,0 +1,291 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
+
+/**
+ * A buffered {@link DataOutput} designed for writing NBT data.
+ *
+ * <p>Primitives are encoded in big-endian order straight in to an internal
+ * buffer, which is only written to the underlying stream once it is full, or
+ * when this output is flushed or closed.</p>
+ *
+ * <p>Outputs created from a {@link ByteBuffer} write directly in to the given
+ * buffer, and fail with a {@link BufferOverflowException} if there is not
+ * enough space remaining in it.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public final class BufferedTagOutput implements DataOutput, Flushable, Closeable {
+
+    private static final ThreadLocal<byte[]> BUFFER_CACHE = new ThreadLocal<>();
+
+    private final @Nullable OutputStream sink;
+    private ByteBuffer buffer;
+    private boolean closed;
+
+    private BufferedTagOutput(final @Nullable OutputStream sink, final ByteBuffer buffer) {
+        this.sink = sink;
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new buffered output that writes to the given stream.
+     *
+     * @param sink the stream to write to
+     * @return a new buffered output
+     */
+    public static @NotNull BufferedTagOutput of(final @NotNull OutputStream sink) {
+        return new BufferedTagOutput(sink, ByteBuffer.wrap(acquireBuffer()));
+    }
+
+    /**
+     * Creates a new buffered output that writes directly in to the remaining
+     * space of the given buffer.
+     *
+     * <p>The position, limit and byte order of the given buffer are not
+     * modified by writing to the returned output.</p>
+     *
+     * @param target the buffer to write to
+     * @return a new buffered output
+     */
+    public static @NotNull BufferedTagOutput of(final @NotNull ByteBuffer target) {
+        return new BufferedTagOutput(null, target.duplicate());
+    }
+
+    private static byte[] acquireBuffer() {
+        final byte[] cached = BUFFER_CACHE.get();
+        if (cached == null) return new byte[BufferedTagInput.BUFFER_SIZE];
+        BUFFER_CACHE.set(null);
+        return cached;
+    }
+
+    /**
+     * Gets the position that the next byte will be written to in the buffer
+     * this output was created from.
+     *
+     * @return the position
+     */
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Ensures that at least the given amount of bytes can be written to the
+     * buffer, draining it to the sink if required.
+     *
+     * @param bytes the amount of bytes required
+     * @throws IOException if an I/O error occurs
+     */
+    private void require(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    private void drain() throws IOException {
+        if (sink == null) throw new BufferOverflowException();
+        sink.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        require(Byte.BYTES);
+        buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(final byte@NotNull[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final byte@NotNull[] bytes, final int offset, final int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            buffer.put(bytes, offset, length);
+            return;
+        }
+        drain();
+        // Anything larger than our buffer goes straight to the sink, as buffering it would only cost us another copy.
+        if (length >= buffer.capacity()) {
+            sink.write(bytes, offset, length);
+            return;
+        }
+        buffer.put(bytes, offset, length);
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        write(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(final int value) throws IOException {
+        write(value);
+    }
+
+    @Override
+    public void writeShort(final int value) throws IOException {
+        require(Short.BYTES);
+        buffer.putShort((short) value);
+    }
+
+    @Override
+    public void writeChar(final int value) throws IOException {
+        require(Character.BYTES);
+        buffer.putChar((char) value);
+    }
+
+    @Override
+    public void writeInt(final int value) throws IOException {
+        require(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) throws IOException {
+        require(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    @Override
+    public void writeFloat(final float value) throws IOException {
+        require(Float.BYTES);
+        buffer.putFloat(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) throws IOException {
+        require(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes the given range of the given array as ints, converting them in
+     * bulk straight in to the buffer.
+     *
+     * @param source the array to write from
+     * @param offset the offset of the first int to write
+     * @param length the amount of ints to write
+     * @throws IOException if an I/O error occurs
+     */
+    void writeInts(final int@NotNull[] source, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            require(Integer.BYTES);
+            final int count = Math.min(end - position, buffer.remaining() / Integer.BYTES);
+            if (buffer.hasArray()) {
+                PrimitiveArrays.encodeInts(source, position, buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+            } else {
+                buffer.asIntBuffer().put(source, position, count);
+            }
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            position += count;
+        }
+    }
+
+    /**
+     * Writes the given range of the given array as longs, converting them in
+     * bulk straight in to the buffer.
+     *
+     * @param source the array to write from
+     * @param offset the offset of the first long to write
+     * @param length the amount of longs to write
+     * @throws IOException if an I/O error occurs
+     */
+    void writeLongs(final long@NotNull[] source, final int offset, final int length) throws IOException {
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            require(Long.BYTES);
+            final int count = Math.min(end - position, buffer.remaining() / Long.BYTES);
+            if (buffer.hasArray()) {
+                PrimitiveArrays.encodeLongs(source, position, buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+            } else {
+                buffer.asLongBuffer().put(source, position, count);
+            }
+            buffer.position(buffer.position() + count * Long.BYTES);
+            position += count;
+        }
+    }
+
+    @Override
+    public void writeBytes(final @NotNull String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            write(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(final @NotNull String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            writeChar(value.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(final @NotNull String value) throws IOException {
+        final int length = ModifiedUtf8.checkedLength(value);
+        writeShort(length);
+        if (buffer.hasArray() && length <= buffer.capacity()) {
+            // Encode straight in to our buffer, which saves encoding in to a temporary array first.
+            require(length);
+            final int position = buffer.position();
+            ModifiedUtf8.encode(value, buffer.array(), buffer.arrayOffset() + position);
+            buffer.position(position + length);
+            return;
+        }
+        final byte[] bytes = new byte[length];
+        ModifiedUtf8.encode(value, bytes, 0);
+        write(bytes, 0, length);
+    }
+
+    /**
+     * Writes any buffered data to the stream this output writes to, if any,
+     * and flushes that stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (sink == null) return;
+        drain();
+        sink.flush();
+    }
+
+    /**
+     * Writes any buffered data to the stream this output writes to, if any,
+     * and closes that stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (sink == null || closed) return;
+        closed = true;
+        try {
+            drain();
+        } finally {
+            if (buffer.capacity() == BufferedTagInput.BUFFER_SIZE) BUFFER_CACHE.set(buffer.array());
+            buffer = ByteBuffer.allocate(0);
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An input stream that reads the remaining bytes of a buffer, advancing the
+ * position of the buffer as bytes are read.
+ *
+ * <p>This is only used to feed buffers through decompressors, which all work
+ * with streams. Uncompressed buffers are read directly.</p>
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte@NotNull[] bytes, final int offset, final int length) {
+        if (length == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+        final int read = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long bytes) {
+        final int skipped = (int) Math.max(0, Math.min(bytes, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An output stream that writes in to the remaining space of a buffer,
+ * advancing the position of the buffer as bytes are written.
+ *
+ * <p>This is only used to feed compressors, which all work with streams.
+ * Uncompressed data is written to buffers directly.</p>
+ */
+final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferOutputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(final int value) {
+        buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(final byte@NotNull[] bytes, final int offset, final int length) {
+        buffer.put(bytes, offset, length);
+    }
+}
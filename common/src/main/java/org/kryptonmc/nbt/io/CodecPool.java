@@ -0,0 +1,73 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A bounded pool of codecs that hold native state, such as {@link Deflater}
+ * and {@link Inflater}, so that we don't have to allocate and free that state
+ * for every stream we open. This is also used to pool the I/O buffers those
+ * streams use.
+ *
+ * <p>Codecs are reset when they are returned to the pool. If the pool is
+ * already full, they are ended instead, which frees their native state
+ * immediately rather than leaving it for the garbage collector.</p>
+ *
+ * <p>Pools are safe to use from any number of threads.</p>
+ *
+ * @param <T> the type of codec
+ */
+final class CodecPool<T> {
+
+    private static final int MAX_POOLED = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int BUFFER_SIZE = 32768;
+
+    /**
+     * The pool of I/O buffers used by the pooled compression streams.
+     */
+    static final CodecPool<byte[]> BUFFERS = new CodecPool<>(() -> new byte[BUFFER_SIZE], buffer -> {}, buffer -> {});
+
+    private final ArrayBlockingQueue<T> pool = new ArrayBlockingQueue<>(MAX_POOLED);
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> end;
+
+    private CodecPool(final Supplier<T> factory, final Consumer<T> reset, final Consumer<T> end) {
+        this.factory = factory;
+        this.reset = reset;
+        this.end = end;
+    }
+
+    static CodecPool<Deflater> deflaters(final int level, final int strategy, final boolean nowrap) {
+        return new CodecPool<>(() -> {
+            final Deflater deflater = new Deflater(level, nowrap);
+            deflater.setStrategy(strategy);
+            return deflater;
+        }, Deflater::reset, Deflater::end);
+    }
+
+    static CodecPool<Inflater> inflaters(final boolean nowrap) {
+        return new CodecPool<>(() -> new Inflater(nowrap), Inflater::reset, Inflater::end);
+    }
+
+    T acquire() {
+        final T pooled = pool.poll();
+        return pooled != null ? pooled : factory.get();
+    }
+
+    void release(final T codec) {
+        reset.accept(codec);
+        if (!pool.offer(codec)) end.accept(codec);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of named compression types.
+ *
+ * <p>This is kept separate from {@link TagCompression} so that the service
+ * loader only runs the first time a compression type is looked up by name,
+ * rather than whenever the constants are first used.</p>
+ */
+final class CompressionRegistry {
+
+    private static final Map<String, TagCompression> BY_NAME = new HashMap<>();
+    private static final Map<TagCompression, String> NAMES = new IdentityHashMap<>();
+
+    static {
+        register("none", TagCompression.NONE);
+        register("gzip", TagCompression.GZIP);
+        register("zlib", TagCompression.ZLIB);
+        // The pooled variants use exactly the same formats, so they share the names.
+        NAMES.put(TagCompression.POOLED_GZIP, "gzip");
+        NAMES.put(TagCompression.POOLED_ZLIB, "zlib");
+        for (final TagCompressionProvider provider : ServiceLoader.load(TagCompressionProvider.class)) {
+            register(provider.name(), provider.compression());
+        }
+    }
+
+    private static void register(final String name, final TagCompression compression) {
+        final String key = name.toLowerCase(Locale.ROOT);
+        if (BY_NAME.putIfAbsent(key, compression) == null) NAMES.putIfAbsent(compression, key);
+    }
+
+    static TagCompression byName(final String name) {
+        return BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    static String nameOf(final TagCompression compression) {
+        return NAMES.get(compression);
+    }
+
+    private CompressionRegistry() {
+    }
+}
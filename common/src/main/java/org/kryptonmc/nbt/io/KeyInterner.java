@@ -0,0 +1,185 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
+
+/**
+ * A table of canonical strings used for the keys of compounds when they are
+ * loaded.
+ *
+ * <p>Real NBT data uses the same few hundred keys over and over again, so
+ * without this, loading a large amount of data creates huge numbers of
+ * identical strings. Keys are matched on their encoded bytes, so a key that
+ * is already in the table is neither decoded nor allocated again.</p>
+ *
+ * <p>The table has a fixed size, and each key can only occupy one slot, which
+ * is chosen by its hash. When two keys want the same slot, the most recent one
+ * wins, so the table never grows, and it never needs locking. Keys longer than
+ * {@link #MAX_KEY_LENGTH} bytes are never interned.</p>
+ *
+ * <p>All compounds are loaded using the {@link #shared() shared} interner,
+ * which can be replaced with {@link #setShared(KeyInterner)}.</p>
+ *
+ * <p>Instances of this class are thread-safe.</p>
+ */
+public final class KeyInterner {
+
+    /**
+     * The maximum length of a key that will be interned, in bytes.
+     */
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final KeyInterner DISABLED = new KeyInterner(new Entry[0]);
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_KEY_LENGTH]);
+    private static volatile KeyInterner shared = create(1024);
+
+    // Entries are immutable, so it's safe for another thread to see one that we've only just written.
+    private final Entry[] table;
+
+    private KeyInterner(final Entry[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates a new interner with room for the given amount of keys.
+     *
+     * @param capacity the capacity, which is rounded up to a power of two
+     * @return a new interner
+     */
+    public static @NotNull KeyInterner create(final int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive, was " + capacity + "!");
+        return new KeyInterner(new Entry[tableSize(capacity)]);
+    }
+
+    static int tableSize(final int capacity) {
+        // Clamp before rounding up, as rounding anything above 2^30 up to the next power of two overflows.
+        return Integer.highestOneBit(Math.max(1, Math.min(capacity, 1 << 30) - 1)) << 1;
+    }
+
+    /**
+     * Creates a new interner with room for the given amount of keys, which
+     * initially contains the given keys.
+     *
+     * @param capacity the capacity, which is rounded up to a power of two
+     * @param vocabulary the keys to add to the interner
+     * @return a new interner
+     */
+    public static @NotNull KeyInterner create(final int capacity, final @NotNull Iterable<@NotNull String> vocabulary) {
+        final KeyInterner result = create(capacity);
+        for (final String key : vocabulary) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    /**
+     * Gets an interner that never interns anything, and always decodes keys.
+     *
+     * @return the disabled interner
+     */
+    public static @NotNull KeyInterner disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Gets the interner used when loading compounds.
+     *
+     * @return the shared interner
+     */
+    public static @NotNull KeyInterner shared() {
+        return shared;
+    }
+
+    /**
+     * Sets the interner used when loading compounds.
+     *
+     * @param interner the new shared interner
+     * @see #disabled()
+     */
+    public static void setShared(final @NotNull KeyInterner interner) {
+        shared = Objects.requireNonNull(interner, "interner");
+    }
+
+    /**
+     * Adds the given key to this interner, replacing any key that uses the
+     * same slot.
+     *
+     * @param key the key
+     */
+    public void add(final @NotNull String key) {
+        if (table.length == 0) return;
+        final int length = ModifiedUtf8.encodedLength(key);
+        if (length > MAX_KEY_LENGTH) return;
+        final byte[] encoded = new byte[length];
+        ModifiedUtf8.encode(key, encoded, 0);
+        table[slot(encoded, 0, length)] = new Entry(encoded, key);
+    }
+
+    /**
+     * Gets the canonical string for the given encoded key, decoding it and
+     * adding it to this interner if it is not already present.
+     *
+     * @param bytes the array holding the encoded key
+     * @param offset the offset of the key in the array
+     * @param length the encoded length of the key
+     * @return the key
+     * @throws UTFDataFormatException if the key is not valid modified UTF-8
+     */
+    public @NotNull String intern(final byte@NotNull[] bytes, final int offset, final int length) throws UTFDataFormatException {
+        if (table.length == 0 || length > MAX_KEY_LENGTH) return ModifiedUtf8.decode(bytes, offset, length);
+        final int slot = slot(bytes, offset, length);
+        final Entry entry = table[slot];
+        if (entry != null && Arrays.equals(entry.encoded, 0, entry.encoded.length, bytes, offset, offset + length)) return entry.value;
+
+        final String value = ModifiedUtf8.decode(bytes, offset, length);
+        table[slot] = new Entry(Arrays.copyOfRange(bytes, offset, offset + length), value);
+        return value;
+    }
+
+    /**
+     * Reads a key, preceded by its length, from the given input, and gets its
+     * canonical string from this interner.
+     *
+     * @param input the input to read from
+     * @return the key
+     * @throws IOException if an I/O error occurs, or the key is not valid
+     * modified UTF-8
+     */
+    public @NotNull String read(final @NotNull DataInput input) throws IOException {
+        if (input instanceof BufferedTagInput buffered) return buffered.readUTF(this);
+        if (table.length == 0) return ModifiedUtf8.read(input);
+        final int length = input.readUnsignedShort();
+        if (length > MAX_KEY_LENGTH) {
+            final byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            return ModifiedUtf8.decode(bytes, 0, length);
+        }
+        final byte[] bytes = SCRATCH.get();
+        input.readFully(bytes, 0, length);
+        return intern(bytes, 0, length);
+    }
+
+    private int slot(final byte[] bytes, final int offset, final int length) {
+        int hash = length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return (hash ^ hash >>> 16) & table.length - 1;
+    }
+
+    private record Entry(byte[] encoded, String value) {
+    }
+}
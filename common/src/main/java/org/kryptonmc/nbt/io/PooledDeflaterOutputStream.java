@@ -0,0 +1,113 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An output stream that compresses data with a deflater borrowed from a pool,
+ * using a buffer that is also borrowed from a pool, and returns both when the
+ * stream is closed.
+ *
+ * <p>The JDK's {@link java.util.zip.GZIPOutputStream} always creates its own
+ * deflater, so we write the GZIP header and trailer ourselves, around a raw
+ * deflate stream, to be able to pool the deflater for GZIP as well.</p>
+ */
+final class PooledDeflaterOutputStream extends OutputStream {
+
+    // The header for a GZIP member with no optional fields, no modification time, and an unknown operating system.
+    private static final byte[] GZIP_HEADER = {0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF};
+
+    private final OutputStream output;
+    private final CodecPool<Deflater> pool;
+    private final Deflater deflater;
+    private final byte[] buffer;
+    private final CRC32 crc;
+    private final byte[] single = new byte[1];
+    private boolean closed;
+
+    PooledDeflaterOutputStream(final OutputStream output, final CodecPool<Deflater> pool, final boolean gzip) throws IOException {
+        this.output = output;
+        this.pool = pool;
+        this.deflater = pool.acquire();
+        this.buffer = CodecPool.BUFFERS.acquire();
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            try {
+                output.write(GZIP_HEADER);
+            } catch (final IOException exception) {
+                release();
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        single[0] = (byte) value;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(final byte@NotNull[] bytes, final int offset, final int length) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (length == 0) return;
+        if (crc != null) crc.update(bytes, offset, length);
+        deflater.setInput(bytes, offset, length);
+        // The deflater holds on to the array we give it, so we must consume all of it before returning.
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+    }
+
+    private void deflate() throws IOException {
+        final int length = deflater.deflate(buffer, 0, buffer.length);
+        if (length > 0) output.write(buffer, 0, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            if (crc != null) writeTrailer();
+            output.close();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        pool.release(deflater);
+        CodecPool.BUFFERS.release(buffer);
+    }
+
+    private void writeTrailer() throws IOException {
+        final int checksum = (int) crc.getValue();
+        final int size = (int) deflater.getBytesRead();
+        final byte[] trailer = {
+                (byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+                (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)
+        };
+        output.write(trailer);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An input stream that decompresses data with an inflater borrowed from a
+ * pool, using a buffer that is also borrowed from a pool, and returns both
+ * when the stream is closed.
+ *
+ * <p>As with {@link PooledDeflaterOutputStream}, the GZIP header and trailer
+ * are handled here, around a raw deflate stream. Only a single GZIP member is
+ * read, which is all that is ever written for NBT data.</p>
+ */
+final class PooledInflaterInputStream extends InputStream {
+
+    private static final int GZIP_MAGIC = 0x8B1F;
+    private static final int FLAG_HEADER_CRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+
+    private final InputStream input;
+    private final CodecPool<Inflater> pool;
+    private final Inflater inflater;
+    private final byte[] buffer;
+    private final CRC32 crc;
+    private final byte[] single = new byte[1];
+    // The region of the buffer that has been read from the input but not yet given to the inflater.
+    private int position;
+    private int limit;
+    private boolean finished;
+    private boolean closed;
+
+    PooledInflaterInputStream(final InputStream input, final CodecPool<Inflater> pool, final boolean gzip) throws IOException {
+        this.input = input;
+        this.pool = pool;
+        this.inflater = pool.acquire();
+        this.buffer = CodecPool.BUFFERS.acquire();
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            try {
+                readHeader();
+            } catch (final IOException exception) {
+                release();
+                throw exception;
+            }
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (readShort() != GZIP_MAGIC) throw new ZipException("Not in GZIP format");
+        if (readByte() != 8) throw new ZipException("Unsupported compression method");
+        final int flags = readByte();
+        // Skip the modification time, extra flags and operating system.
+        for (int i = 0; i < 6; i++) {
+            readByte();
+        }
+        if ((flags & FLAG_EXTRA) != 0) {
+            for (int length = readShort(); length > 0; length--) {
+                readByte();
+            }
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            while (readByte() != 0) {
+                // Skip the zero-terminated file name.
+            }
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            while (readByte() != 0) {
+                // Skip the zero-terminated comment.
+            }
+        }
+        if ((flags & FLAG_HEADER_CRC) != 0) readShort();
+    }
+
+    private void readTrailer() throws IOException {
+        // Anything the inflater didn't consume is the start of the trailer.
+        position = limit - inflater.getRemaining();
+        final long checksum = readInt() & 0xFFFFFFFFL;
+        final long size = readInt() & 0xFFFFFFFFL;
+        if (checksum != crc.getValue()) throw new ZipException("Corrupt GZIP trailer");
+        if (size != (inflater.getBytesWritten() & 0xFFFFFFFFL)) throw new ZipException("Corrupt GZIP trailer");
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) fill();
+        return buffer[position++] & 0xFF;
+    }
+
+    private int readShort() throws IOException {
+        return readByte() | readByte() << 8;
+    }
+
+    private int readInt() throws IOException {
+        return readShort() | readShort() << 16;
+    }
+
+    private void fill() throws IOException {
+        final int read = input.read(buffer, 0, buffer.length);
+        if (read < 0) throw new EOFException("Unexpected end of ZLIB input stream");
+        position = 0;
+        limit = read;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte@NotNull[] bytes, final int offset, final int length) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        if (length == 0) return 0;
+        if (finished) return -1;
+        try {
+            while (true) {
+                final int read = inflater.inflate(bytes, offset, length);
+                if (read > 0) {
+                    if (crc != null) crc.update(bytes, offset, read);
+                    return read;
+                }
+                if (inflater.finished()) {
+                    finished = true;
+                    if (crc != null) readTrailer();
+                    return -1;
+                }
+                if (inflater.needsDictionary()) throw new ZipException("Deflate dictionaries are not supported");
+                if (inflater.needsInput()) {
+                    if (position == limit) fill();
+                    inflater.setInput(buffer, position, limit - position);
+                    position = limit;
+                }
+            }
+        } catch (final DataFormatException exception) {
+            final String message = exception.getMessage();
+            throw new ZipException(message != null ? message : "Invalid ZLIB data format");
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        return finished ? 0 : 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            input.close();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        pool.release(inflater);
+        CodecPool.BUFFERS.release(buffer);
+    }
+}
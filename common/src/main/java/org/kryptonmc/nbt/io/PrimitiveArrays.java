@@ -0,0 +1,224 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Bulk reading and writing of big-endian int and long arrays, as used by
+ * int and long array tags.
+ *
+ * <p>Rather than reading or writing each element through a separate call to
+ * {@link DataInput#readInt()} or {@link DataOutput#writeLong(long)}, which
+ * assembles or splits every element one byte at a time for most
+ * implementations, elements are converted in bulk. {@link BufferedTagInput}
+ * and {@link BufferedTagOutput} convert straight from and in to their
+ * buffers, and all other inputs and outputs go through a scratch array, which
+ * is read or written with a single call.</p>
+ */
+public final class PrimitiveArrays {
+
+    private static final int SCRATCH_SIZE = 8192;
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+
+    /**
+     * Reads the given amount of big-endian ints from the given input in to
+     * the given array, starting at the given offset.
+     *
+     * @param input the input to read from
+     * @param destination the array to read in to
+     * @param offset the offset to start writing to the array at
+     * @param length the amount of ints to read
+     * @throws IOException if an I/O error occurs
+     */
+    public static void readInts(final @NotNull DataInput input, final int@NotNull[] destination, final int offset,
+                                final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        if (input instanceof BufferedTagInput buffered) {
+            buffered.readInts(destination, offset, length);
+            return;
+        }
+        final byte[] scratch = SCRATCH.get();
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            final int count = Math.min(end - position, SCRATCH_SIZE / Integer.BYTES);
+            input.readFully(scratch, 0, count * Integer.BYTES);
+            decodeInts(scratch, 0, destination, position, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Reads the given amount of big-endian longs from the given input in to
+     * the given array, starting at the given offset.
+     *
+     * @param input the input to read from
+     * @param destination the array to read in to
+     * @param offset the offset to start writing to the array at
+     * @param length the amount of longs to read
+     * @throws IOException if an I/O error occurs
+     */
+    public static void readLongs(final @NotNull DataInput input, final long@NotNull[] destination, final int offset,
+                                 final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        if (input instanceof BufferedTagInput buffered) {
+            buffered.readLongs(destination, offset, length);
+            return;
+        }
+        final byte[] scratch = SCRATCH.get();
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            final int count = Math.min(end - position, SCRATCH_SIZE / Long.BYTES);
+            input.readFully(scratch, 0, count * Long.BYTES);
+            decodeLongs(scratch, 0, destination, position, count);
+            position += count;
+        }
+    }
+
+    /**
+     * Writes the given range of the given array to the given output as
+     * big-endian ints.
+     *
+     * @param output the output to write to
+     * @param source the array to write from
+     * @param offset the offset of the first int to write
+     * @param length the amount of ints to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeInts(final @NotNull DataOutput output, final int@NotNull[] source, final int offset,
+                                 final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        if (output instanceof BufferedTagOutput buffered) {
+            buffered.writeInts(source, offset, length);
+            return;
+        }
+        final byte[] scratch = SCRATCH.get();
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            final int count = Math.min(end - position, SCRATCH_SIZE / Integer.BYTES);
+            encodeInts(source, position, scratch, 0, count);
+            output.write(scratch, 0, count * Integer.BYTES);
+            position += count;
+        }
+    }
+
+    /**
+     * Writes the given range of the given array to the given output as
+     * big-endian longs.
+     *
+     * @param output the output to write to
+     * @param source the array to write from
+     * @param offset the offset of the first long to write
+     * @param length the amount of longs to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeLongs(final @NotNull DataOutput output, final long@NotNull[] source, final int offset,
+                                  final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        if (output instanceof BufferedTagOutput buffered) {
+            buffered.writeLongs(source, offset, length);
+            return;
+        }
+        final byte[] scratch = SCRATCH.get();
+        int position = offset;
+        final int end = offset + length;
+        while (position < end) {
+            final int count = Math.min(end - position, SCRATCH_SIZE / Long.BYTES);
+            encodeLongs(source, position, scratch, 0, count);
+            output.write(scratch, 0, count * Long.BYTES);
+            position += count;
+        }
+    }
+
+    // The JIT compiles these loops down to byte-swapping loads and stores, and unrolls them.
+
+    /**
+     * Decodes the given amount of big-endian ints from the given array, in to
+     * the other given array.
+     *
+     * @param source the array to decode from
+     * @param sourceOffset the offset of the first encoded int
+     * @param destination the array to decode in to
+     * @param offset the offset to start writing to the destination at
+     * @param count the amount of ints to decode
+     */
+    public static void decodeInts(final byte@NotNull[] source, final int sourceOffset, final int@NotNull[] destination,
+                                  final int offset, final int count) {
+        for (int i = 0; i < count; i++) {
+            destination[offset + i] = (int) INT_VIEW.get(source, sourceOffset + i * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Decodes the given amount of big-endian longs from the given array, in
+     * to the other given array.
+     *
+     * @param source the array to decode from
+     * @param sourceOffset the offset of the first encoded long
+     * @param destination the array to decode in to
+     * @param offset the offset to start writing to the destination at
+     * @param count the amount of longs to decode
+     */
+    public static void decodeLongs(final byte@NotNull[] source, final int sourceOffset, final long@NotNull[] destination,
+                                   final int offset, final int count) {
+        for (int i = 0; i < count; i++) {
+            destination[offset + i] = (long) LONG_VIEW.get(source, sourceOffset + i * Long.BYTES);
+        }
+    }
+
+    /**
+     * Encodes the given range of the given array in to the other given array
+     * as big-endian ints.
+     *
+     * @param source the array to encode from
+     * @param offset the offset of the first int to encode
+     * @param destination the array to encode in to
+     * @param destinationOffset the offset to start writing to the destination at
+     * @param count the amount of ints to encode
+     */
+    public static void encodeInts(final int@NotNull[] source, final int offset, final byte@NotNull[] destination,
+                                  final int destinationOffset, final int count) {
+        for (int i = 0; i < count; i++) {
+            INT_VIEW.set(destination, destinationOffset + i * Integer.BYTES, source[offset + i]);
+        }
+    }
+
+    /**
+     * Encodes the given range of the given array in to the other given array
+     * as big-endian longs.
+     *
+     * @param source the array to encode from
+     * @param offset the offset of the first long to encode
+     * @param destination the array to encode in to
+     * @param destinationOffset the offset to start writing to the destination at
+     * @param count the amount of longs to encode
+     */
+    public static void encodeLongs(final long@NotNull[] source, final int offset, final byte@NotNull[] destination,
+                                   final int destinationOffset, final int count) {
+        for (int i = 0; i < count; i++) {
+            LONG_VIEW.set(destination, destinationOffset + i * Long.BYTES, source[offset + i]);
+        }
+    }
+
+    private PrimitiveArrays() {
+        throw new AssertionError("This class cannot be instantiated!");
+    }
+}
@@ -12,11 +12,14 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A compression type for NBT data.
@@ -39,6 +42,132 @@ public record TagCompression(@NotNull CompressorFunction<@NotNull InputStream> d
      * The compression type for ZLIB compressed data.
      */
     public static final @NotNull TagCompression ZLIB = new TagCompression(InflaterInputStream::new, DeflaterOutputStream::new);
+    /**
+     * The compression type for GZIP compressed data, which reuses deflaters,
+     * inflaters and buffers between streams.
+     *
+     * <p>This produces exactly the same format as {@link #GZIP}, but avoids
+     * allocating native zlib state for every stream, which makes it much
+     * better suited to saving large amounts of data from many threads.</p>
+     *
+     * @see #gzip(int)
+     */
+    public static final @NotNull TagCompression POOLED_GZIP = gzip(Deflater.DEFAULT_COMPRESSION);
+    /**
+     * The compression type for ZLIB compressed data, which reuses deflaters,
+     * inflaters and buffers between streams.
+     *
+     * <p>This produces exactly the same format as {@link #ZLIB}, but avoids
+     * allocating native zlib state for every stream, which makes it much
+     * better suited to saving large amounts of data from many threads.</p>
+     *
+     * @see #zlib(int, int)
+     */
+    public static final @NotNull TagCompression POOLED_ZLIB = zlib(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+
+    /**
+     * Creates a new GZIP compression type that compresses with the given
+     * compression level.
+     *
+     * <p>The returned compression type keeps a small pool of deflaters,
+     * inflaters and buffers, so they are reused between streams, rather than
+     * being allocated for every stream. Only the first member of concatenated
+     * GZIP data is read.</p>
+     *
+     * @param level the compression level, from 0 to 9, or -1 for the default
+     * @return a new GZIP compression type
+     * @throws IllegalArgumentException if the level is not valid
+     * @see Deflater#setLevel(int)
+     */
+    public static @NotNull TagCompression gzip(final int level) {
+        return pooled(level, Deflater.DEFAULT_STRATEGY, Format.GZIP);
+    }
+
+    /**
+     * Creates a new ZLIB compression type that compresses with the given
+     * compression level and strategy.
+     *
+     * <p>The returned compression type keeps a small pool of deflaters,
+     * inflaters and buffers, so they are reused between streams, rather than
+     * being allocated for every stream.</p>
+     *
+     * @param level the compression level, from 0 to 9, or -1 for the default
+     * @param strategy the compression strategy
+     * @return a new ZLIB compression type
+     * @throws IllegalArgumentException if the level or strategy is not valid
+     * @see Deflater#setLevel(int)
+     * @see Deflater#setStrategy(int)
+     */
+    public static @NotNull TagCompression zlib(final int level, final int strategy) {
+        return pooled(level, strategy, Format.ZLIB);
+    }
+
+    /**
+     * Creates a new compression type for raw deflate data, with no header or
+     * checksum, that compresses with the given compression level and
+     * strategy.
+     *
+     * <p>The returned compression type keeps a small pool of deflaters,
+     * inflaters and buffers, so they are reused between streams, rather than
+     * being allocated for every stream.</p>
+     *
+     * @param level the compression level, from 0 to 9, or -1 for the default
+     * @param strategy the compression strategy
+     * @return a new raw deflate compression type
+     * @throws IllegalArgumentException if the level or strategy is not valid
+     * @see Deflater#setLevel(int)
+     * @see Deflater#setStrategy(int)
+     */
+    public static @NotNull TagCompression deflate(final int level, final int strategy) {
+        return pooled(level, strategy, Format.RAW);
+    }
+
+    private static TagCompression pooled(final int level, final int strategy, final Format format) {
+        checkLevel(level);
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy " + strategy + '!');
+        }
+        // GZIP is raw deflate data with our own header and trailer around it.
+        final boolean nowrap = format != Format.ZLIB;
+        final boolean gzip = format == Format.GZIP;
+        final CodecPool<Deflater> deflaters = CodecPool.deflaters(level, strategy, nowrap);
+        final CodecPool<Inflater> inflaters = CodecPool.inflaters(nowrap);
+        return new TagCompression(input -> new PooledInflaterInputStream(input, inflaters, gzip),
+                output -> new PooledDeflaterOutputStream(output, deflaters, gzip));
+    }
+
+    private static void checkLevel(final int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + level + '!');
+        }
+    }
+
+    /**
+     * Gets the compression type with the given name.
+     *
+     * <p>The built-in names are "none", "gzip" and "zlib". Other names are
+     * provided by {@link TagCompressionProvider}s, which are discovered with
+     * the {@link java.util.ServiceLoader}. Names are not case-sensitive.</p>
+     *
+     * @param name the name
+     * @return the compression type, or null if there is no compression type
+     * with the given name
+     */
+    public static @Nullable TagCompression byName(final @NotNull String name) {
+        return CompressionRegistry.byName(name);
+    }
+
+    /**
+     * Gets the name that the given compression type is registered under.
+     *
+     * @param compression the compression type
+     * @return the name, or null if the given compression type is not
+     * registered
+     * @see #byName(String)
+     */
+    public static @Nullable String nameOf(final @NotNull TagCompression compression) {
+        return CompressionRegistry.nameOf(compression);
+    }
 
     /**
      * Decompresses the given input stream using the decompressor function.
@@ -62,6 +191,13 @@ public record TagCompression(@NotNull CompressorFunction<@NotNull InputStream> d
         return compressor.apply(output);
     }
 
+    private enum Format {
+
+        GZIP,
+        ZLIB,
+        RAW
+    }
+
     /**
      * A function that takes a closeable output and returns the compressed or
      * decompressed variant.
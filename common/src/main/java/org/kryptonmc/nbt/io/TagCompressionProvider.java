@@ -0,0 +1,41 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A service that provides a named {@link TagCompression}.
+ *
+ * <p>Providers are discovered with the {@link java.util.ServiceLoader} the
+ * first time a compression is looked up by name, which allows compression
+ * types that need extra dependencies to live outside of this module.</p>
+ *
+ * @see TagCompression#byName(String)
+ */
+public interface TagCompressionProvider {
+
+    /**
+     * Gets the name of the compression type this provider provides.
+     *
+     * <p>Names are not case-sensitive. If more than one provider uses the
+     * same name, the first one that is found is used, and the built-in
+     * names, "none", "gzip" and "zlib", cannot be replaced.</p>
+     *
+     * @return the name
+     */
+    @NotNull String name();
+
+    /**
+     * Gets the compression type this provider provides.
+     *
+     * @return the compression type
+     */
+    @NotNull TagCompression compression();
+}
@@ -0,0 +1,551 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.CompoundTag;
+
+/**
+ * A single file holding many named compound tags, each compressed
+ * separately, with an index of where each tag is stored.
+ *
+ * <p>Keeping many small tags in one container avoids opening a file for
+ * every tag. The container is mapped in to memory when it is opened, and its
+ * index is read in to a hash table, so any tag can be read by name without
+ * scanning the file.</p>
+ *
+ * <p>The file starts with a header, followed by the data of each tag, which
+ * is exactly what {@link TagIO#write(java.io.OutputStream, CompoundTag,
+ * TagCompression)} writes for the tag, and ends with the index and a
+ * fixed size trailer that gives the position of the index. The header records
+ * the committed length of the container, which is where the latest complete
+ * trailer ends. The index records the name, compression, position and length
+ * of every tag. Compression types
+ * are stored by {@link TagCompression#nameOf(TagCompression) name}, so only
+ * registered compression types can be used.</p>
+ *
+ * <p>Containers are only ever appended to. A {@link Writer} writes new data
+ * and a new index after the end of the file, and only commits them once they
+ * are on disk, by updating the committed length in the header, so data that
+ * has already been written is never changed. Anything past the committed
+ * length, such as the data of a writer that crashed before it was closed, is
+ * ignored by readers, and discarded by the next writer. Containers
+ * that have been opened keep reading the data they were opened with, even
+ * while a writer is appending to the file, or after the file is replaced by
+ * {@link #compact(Path)}. Instances of this class are thread-safe.</p>
+ */
+public final class TagContainer implements Closeable {
+
+    private static final int MAGIC = 0x4B4E4243; // KNBC
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+    private static final int COMMITTED_LENGTH_POSITION = Integer.BYTES * 2;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES * 2;
+    // The committed length of a container that has been replaced by compact. It is lower than any valid length, so anyone who
+    // opened the old file before it was replaced knows to open the new one instead.
+    private static final long RETIRED = 0;
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final Map<String, Entry> entries;
+
+    private TagContainer(final FileChannel channel, final ByteBuffer data, final Map<String, Entry> entries) {
+        this.channel = channel;
+        this.data = data;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the container at the given path by mapping it in to memory.
+     *
+     * <p>The container is mapped as a whole, so it must be smaller than
+     * 2 GiB.</p>
+     *
+     * @param path the path of the container
+     * @return the opened container
+     * @throws IOException if an I/O error occurs, or the file is not a valid
+     * container
+     */
+    public static @NotNull TagContainer open(final @NotNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            // The file may have been replaced by compact between us opening it and reading it. The header must only be read once,
+            // as it could be retired in between two reads.
+            long committed = readHeader(channel);
+            while (committed == RETIRED) {
+                channel.close();
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                committed = readHeader(channel);
+            }
+            final long size = checkCommittedLength(channel, committed);
+            if (size > Integer.MAX_VALUE) throw new IOException("Container " + path + " is too large to map!");
+            final ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            return new TagContainer(channel, data, Collections.unmodifiableMap(readIndex(data)));
+        } catch (final IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Opens a writer that appends to the container at the given path,
+     * creating a new container if the file does not exist.
+     *
+     * <p>The writer locks the file until it is closed, so only one writer
+     * can append to a container at a time. Opening a writer waits for any
+     * other writer of the container, in this process or another, to be
+     * closed, and for any compaction of it to finish. A thread must not open
+     * a second writer for a container whilst it still has one open, as it
+     * would wait forever. Anything left past the committed length of the
+     * container by a writer that was never closed is discarded.</p>
+     *
+     * @param path the path of the container
+     * @return a new writer
+     * @throws IOException if an I/O error occurs, or the file is not a valid
+     * container
+     */
+    public static @NotNull Writer writer(final @NotNull Path path) throws IOException {
+        final ContainerLock lock = ContainerLock.acquire(path, StandardOpenOption.CREATE);
+        final FileChannel channel = lock.channel;
+        try {
+            if (channel.size() == 0) {
+                writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(HEADER_SIZE).flip(), 0);
+                return new Writer(channel, lock, new LinkedHashMap<>(), HEADER_SIZE, true);
+            }
+            final long size = readCommittedLength(channel);
+            if (channel.size() > size) channel.truncate(size);
+            // A new container that was never closed has nothing committed yet, so it is still empty.
+            if (size == HEADER_SIZE) return new Writer(channel, lock, new LinkedHashMap<>(), HEADER_SIZE, true);
+            if (size > Integer.MAX_VALUE) throw new IOException("Container " + path + " is too large to map!");
+            final ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            return new Writer(channel, lock, readIndex(data), size, false);
+        } catch (final IOException | RuntimeException exception) {
+            lock.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Rewrites the container at the given path so it only holds the current
+     * data of each tag, dropping data and indexes that have been replaced.
+     *
+     * <p>The data of each tag is copied as it is, without being decoded or
+     * recompressed. The compacted container is written to a temporary file
+     * in the same directory, with the POSIX permissions of the original where
+     * they are supported, which then atomically replaces the original, so
+     * containers that are already open are not affected.</p>
+     *
+     * <p>Compaction holds the same lock as a {@link #writer(Path) writer}
+     * for the whole copy and replacement, so it waits for any open writer to
+     * be closed, and writers opened in the meantime wait for it to finish and
+     * then append to the compacted container. It must not be called by a
+     * thread that has a writer for the container open.</p>
+     *
+     * @param path the path of the container
+     * @throws IOException if an I/O error occurs, or the file is not a valid
+     * container
+     */
+    public static void compact(final @NotNull Path path) throws IOException {
+        final Path absolute = path.toAbsolutePath();
+        try (final ContainerLock lock = ContainerLock.acquire(absolute)) {
+            final long size = readCommittedLength(lock.channel);
+            if (size > Integer.MAX_VALUE) throw new IOException("Container " + path + " is too large to map!");
+            final ByteBuffer data = lock.channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            final Map<String, Entry> entries = readIndex(data);
+
+            final Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (final Writer writer = writer(temporary)) {
+                    for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                        final Entry value = entry.getValue();
+                        writer.append(entry.getKey(), data.slice(value.position(), value.length()), value.compressionName());
+                    }
+                }
+                // Temporary files are only accessible by their owner, so the container would lose any access that others had.
+                final PosixFileAttributeView permissions = Files.getFileAttributeView(absolute, PosixFileAttributeView.class);
+                if (permissions != null) Files.setPosixFilePermissions(temporary, permissions.readAttributes().permissions());
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final IOException | RuntimeException exception) {
+                Files.deleteIfExists(temporary);
+                throw exception;
+            }
+            // Anyone waiting for the lock on the old file would otherwise append to it once we release it, and that data would be
+            // lost, as the file is no longer linked to the path.
+            writeFully(lock.channel, ByteBuffer.allocate(Long.BYTES).putLong(RETIRED).flip(), COMMITTED_LENGTH_POSITION);
+            lock.channel.force(false);
+        }
+    }
+
+    private static boolean isRetired(final FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) return false;
+        final ByteBuffer committed = ByteBuffer.allocate(Long.BYTES);
+        while (committed.hasRemaining()) {
+            if (channel.read(committed, COMMITTED_LENGTH_POSITION + committed.position()) < 0) return false;
+        }
+        return committed.getLong(0) == RETIRED;
+    }
+
+    private static long readCommittedLength(final FileChannel channel) throws IOException {
+        return checkCommittedLength(channel, readHeader(channel));
+    }
+
+    // Reads the header and returns the committed length, without checking it, as it may be RETIRED.
+    private static long readHeader(final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("Not a tag container, or the container is incomplete!");
+        }
+        if (header.getInt(0) != MAGIC) throw new IOException("Not a tag container, or the container is incomplete!");
+        if (header.getInt(Integer.BYTES) != VERSION) throw new IOException("Unsupported container version " + header.getInt(Integer.BYTES) + '!');
+        return header.getLong(COMMITTED_LENGTH_POSITION);
+    }
+
+    private static long checkCommittedLength(final FileChannel channel, final long committed) throws IOException {
+        if (committed < HEADER_SIZE || committed > channel.size()) throw new IOException("Invalid committed length " + committed + " for container!");
+        return committed;
+    }
+
+    private static Map<String, Entry> readIndex(final ByteBuffer data) throws IOException {
+        final int size = data.limit();
+        if (size < HEADER_SIZE + TRAILER_SIZE || data.getInt(size - Integer.BYTES) != MAGIC) {
+            throw new IOException("Not a tag container, or the container is incomplete!");
+        }
+        final long indexPosition = data.getLong(size - TRAILER_SIZE);
+        final int count = data.getInt(size - TRAILER_SIZE + Long.BYTES);
+        if (indexPosition < HEADER_SIZE || indexPosition > size - TRAILER_SIZE || count < 0) throw new IOException("Invalid container index!");
+
+        final Map<String, Entry> entries = new LinkedHashMap<>(Math.max(16, (int) (count / 0.75F) + 1));
+        final BufferedTagInput index = BufferedTagInput.of(data.slice((int) indexPosition, size - TRAILER_SIZE - (int) indexPosition));
+        try {
+            for (int i = 0; i < count; i++) {
+                final String name = index.readUTF();
+                final String compressionName = index.readUTF();
+                final long position = index.readLong();
+                final int length = index.readInt();
+                if (position < HEADER_SIZE || length < 0 || position + length > indexPosition) {
+                    throw new IOException("Invalid position for tag " + name + " in container index!");
+                }
+                final TagCompression compression = TagCompression.byName(compressionName);
+                if (compression == null) throw new IOException("Unknown compression " + compressionName + " for tag " + name + '!');
+                entries.put(name, new Entry((int) position, length, compression, compressionName));
+            }
+        } catch (final EOFException exception) {
+            throw new IOException("Invalid container index!", exception);
+        }
+        return entries;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long target = position;
+        while (buffer.hasRemaining()) {
+            target += channel.write(buffer, target);
+        }
+    }
+
+    /**
+     * Gets the names of all the tags in this container.
+     *
+     * @return the names of all the tags
+     */
+    public @NotNull Set<@NotNull String> names() {
+        return entries.keySet();
+    }
+
+    /**
+     * Gets the amount of tags in this container.
+     *
+     * @return the amount of tags
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Checks if this container holds a tag with the given name.
+     *
+     * @param name the name
+     * @return true if this container holds a tag with the given name
+     */
+    public boolean contains(final @NotNull String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Reads the tag with the given name from this container.
+     *
+     * @param name the name of the tag
+     * @return the tag, or null if this container does not hold a tag with
+     * the given name
+     * @throws IOException if an I/O error occurs, or the data is malformed
+     */
+    public @Nullable CompoundTag read(final @NotNull String name) throws IOException {
+        final Entry entry = entries.get(name);
+        if (entry == null) return null;
+        return TagIO.read(data.slice(entry.position(), entry.length()), entry.compression());
+    }
+
+    /**
+     * Reads the tag with the given name from this container, only decoding
+     * its entries when they are first accessed.
+     *
+     * <p>Uncompressed tags are read straight from the mapped container,
+     * without being copied.</p>
+     *
+     * @param name the name of the tag
+     * @return the tag, or null if this container does not hold a tag with
+     * the given name
+     * @throws IOException if an I/O error occurs, or the data is malformed
+     * @see TagIO#readLazy(ByteBuffer, TagCompression)
+     */
+    public @Nullable CompoundTag readLazy(final @NotNull String name) throws IOException {
+        final Entry entry = entries.get(name);
+        if (entry == null) return null;
+        return TagIO.readLazy(data.slice(entry.position(), entry.length()), entry.compression());
+    }
+
+    /**
+     * Closes this container.
+     *
+     * <p>Lazily read tags that have not been fully decoded may still read
+     * from the mapped container after it is closed.</p>
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private record Entry(int position, int length, TagCompression compression, String compressionName) {
+    }
+
+    /**
+     * A writer that appends tags to a container.
+     *
+     * <p>Tags that are written or removed are only visible to containers
+     * that are opened after this writer is closed, which is when the new
+     * index is written. Instances of this class are not thread-safe.</p>
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ContainerLock lock;
+        private final Map<String, Entry> entries;
+        private long end;
+        private boolean dirty;
+
+        private Writer(final FileChannel channel, final ContainerLock lock, final Map<String, Entry> entries, final long end,
+                       final boolean dirty) {
+            this.channel = channel;
+            this.lock = lock;
+            this.entries = entries;
+            this.end = end;
+            this.dirty = dirty;
+        }
+
+        /**
+         * Writes the given tag to the container with the given name, using
+         * the given compression, replacing any existing tag with the same
+         * name.
+         *
+         * @param name the name of the tag
+         * @param tag the tag to write
+         * @param compression the compression to compress the tag with
+         * @throws IOException if an I/O error occurs
+         * @throws IllegalArgumentException if the compression is not
+         * registered
+         */
+        public void write(final @NotNull String name, final @NotNull CompoundTag tag, final @NotNull TagCompression compression) throws IOException {
+            final String compressionName = TagCompression.nameOf(compression);
+            if (compressionName == null) throw new IllegalArgumentException("Compression types in containers must be registered!");
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            TagIO.write(output, tag, compression);
+            append(name, ByteBuffer.wrap(output.toByteArray()), compressionName);
+        }
+
+        /**
+         * Removes the tag with the given name from the container.
+         *
+         * <p>The data of the tag is left in the file until the container is
+         * {@link TagContainer#compact(Path) compacted}.</p>
+         *
+         * @param name the name of the tag
+         * @return true if the container held a tag with the given name
+         */
+        public boolean remove(final @NotNull String name) {
+            if (entries.remove(name) == null) return false;
+            dirty = true;
+            return true;
+        }
+
+        private void append(final String name, final ByteBuffer data, final String compressionName) throws IOException {
+            if (end + data.remaining() > Integer.MAX_VALUE) throw new IOException("Container is too large!");
+            final int length = data.remaining();
+            writeFully(channel, data, end);
+            entries.put(name, new Entry((int) end, length, TagCompression.byName(compressionName), compressionName));
+            end += length;
+            dirty = true;
+        }
+
+        /**
+         * Writes the new index of the container and commits it, if anything
+         * has changed, and releases the lock on the file.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (dirty) writeIndex();
+            } finally {
+                lock.close();
+            }
+        }
+
+        private void writeIndex() throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream index = new DataOutputStream(bytes);
+            for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                index.writeUTF(entry.getKey());
+                index.writeUTF(entry.getValue().compressionName());
+                index.writeLong(entry.getValue().position());
+                index.writeInt(entry.getValue().length());
+            }
+            index.writeLong(end);
+            index.writeInt(entries.size());
+            index.writeInt(MAGIC);
+            // Everything the committed length covers must be on disk before it is updated, or a crash could leave it pointing at
+            // garbage. Until then, readers keep using the previous index, and the next writer discards what we wrote.
+            writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()), end);
+            channel.force(false);
+            end += bytes.size();
+            writeFully(channel, ByteBuffer.allocate(Long.BYTES).putLong(end).flip(), COMMITTED_LENGTH_POSITION);
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * The lock that writers and compaction hold on a container.
+     *
+     * <p>File locks are held on behalf of the whole process, and trying to
+     * lock a file that is already locked by the same process fails, rather
+     * than waiting. Writers in the same process therefore wait for each other
+     * through a semaphore for the path first, and only then lock the file,
+     * which makes them wait for writers in other processes.</p>
+     */
+    private static final class ContainerLock implements Closeable {
+
+        // Entries are removed once nothing is using or waiting for them, so this only holds paths that are currently locked.
+        private static final Map<Path, LocalLock> LOCAL_LOCKS = new HashMap<>();
+
+        private final Path key;
+        private final LocalLock local;
+        private final FileChannel channel;
+        private final FileLock lock;
+
+        private ContainerLock(final Path key, final LocalLock local, final FileChannel channel, final FileLock lock) {
+            this.key = key;
+            this.local = local;
+            this.channel = channel;
+            this.lock = lock;
+        }
+
+        static ContainerLock acquire(final Path path, final OpenOption... options) throws IOException {
+            final Path key = path.toAbsolutePath().normalize();
+            final LocalLock local;
+            synchronized (LOCAL_LOCKS) {
+                local = LOCAL_LOCKS.computeIfAbsent(key, ignored -> new LocalLock());
+                local.users++;
+            }
+            try {
+                local.semaphore.acquire();
+            } catch (final InterruptedException exception) {
+                release(key, local, false);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted whilst waiting for the lock on container " + path + '!');
+            }
+            try {
+                while (true) {
+                    final FileChannel channel = openChannel(path, options);
+                    try {
+                        final FileLock lock = channel.lock();
+                        // If the file was compacted whilst we were waiting for the lock, it has been replaced, so we lock the new one.
+                        if (!isRetired(channel)) return new ContainerLock(key, local, channel, lock);
+                    } catch (final IOException | RuntimeException exception) {
+                        channel.close();
+                        throw exception;
+                    }
+                    channel.close();
+                }
+            } catch (final IOException | RuntimeException exception) {
+                release(key, local, true);
+                throw exception;
+            }
+        }
+
+        private static FileChannel openChannel(final Path path, final OpenOption... options) throws IOException {
+            final OpenOption[] allOptions = new OpenOption[options.length + 2];
+            allOptions[0] = StandardOpenOption.READ;
+            allOptions[1] = StandardOpenOption.WRITE;
+            System.arraycopy(options, 0, allOptions, 2, options.length);
+            return FileChannel.open(path, allOptions);
+        }
+
+        private static void release(final Path key, final LocalLock local, final boolean acquired) {
+            if (acquired) local.semaphore.release();
+            synchronized (LOCAL_LOCKS) {
+                if (--local.users == 0) LOCAL_LOCKS.remove(key);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                lock.release();
+            } finally {
+                try {
+                    channel.close();
+                } finally {
+                    release(key, local, true);
+                }
+            }
+        }
+    }
+
+    private static final class LocalLock {
+
+        // A semaphore rather than a lock, as writers may be closed by a different thread to the one that opened them.
+        private final Semaphore semaphore = new Semaphore(1);
+        private int users;
+    }
+}
@@ -8,23 +8,40 @@
  */
 package org.kryptonmc.nbt.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.jetbrains.annotations.NotNull;
 import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.MutableCompoundTag;
+import org.kryptonmc.nbt.TagProjection;
+import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
 
 /**
  * A utility used for reading and writing NBT data.
  */
 public final class TagIO {
 
+    // Any thread's reused output that grows beyond this is dropped after use, so we don't hold on to huge arrays forever.
+    private static final int MAX_RETAINED_OUTPUT = 8 * 1024 * 1024;
+    private static final ThreadLocal<ByteArrayOutputStream> BATCH_OUTPUT = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+
     /**
      * Reads a compound tag from the given input, using the given compression
      * to decompress the input before reading the data.
@@ -40,6 +57,44 @@ public final class TagIO {
         }
     }
 
+    /**
+     * Reads a compound tag from the given data, using the given compression
+     * to decompress the data before reading it.
+     *
+     * <p>Uncompressed data is read directly from the given array, without
+     * being copied.</p>
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull CompoundTag read(final byte@NotNull[] data, final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.ensureCompound(TagUtil.readUnnamedTag(BufferedTagInput.of(data)));
+        return read(new ByteArrayInputStream(data), compression);
+    }
+
+    /**
+     * Reads a compound tag from the remaining bytes of the given buffer,
+     * using the given compression to decompress the data before reading it.
+     *
+     * <p>Uncompressed data is read directly from the given buffer, without
+     * being copied. The position of the buffer is advanced past the bytes
+     * that were read.</p>
+     *
+     * @param input the buffer to read from
+     * @param compression the compression to decompress the data with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull CompoundTag read(final @NotNull ByteBuffer input, final @NotNull TagCompression compression) throws IOException {
+        if (compression != TagCompression.NONE) return read(new ByteBufferInputStream(input), compression);
+        final BufferedTagInput data = BufferedTagInput.of(input);
+        final CompoundTag result = TagUtil.ensureCompound(TagUtil.readUnnamedTag(data));
+        input.position(data.position());
+        return result;
+    }
+
     /**
      * Reads a compound tag from the given path, using the given compression
      * to decompress the input before reading the data, opening a new stream
@@ -69,6 +124,218 @@ public final class TagIO {
         return read(new FileInputStream(file), compression);
     }
 
+    /**
+     * Reads a compound tag from the given input, using the given compression
+     * to decompress the input before reading the data, and only loading the
+     * entries selected by the given projection.
+     *
+     * <p>Everything the projection does not select is skipped without being
+     * decoded, which makes this much cheaper than a full read when only a
+     * few entries of a large compound are needed.</p>
+     *
+     * @param input the input to read from
+     * @param compression the compression to decompress the data with
+     * @param projection the projection selecting the entries to load
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull CompoundTag read(final @NotNull InputStream input, final @NotNull TagCompression compression,
+                                            final @NotNull TagProjection projection) throws IOException {
+        try (final InputStream stream = compression.decompress(input)) {
+            return TagUtil.ensureCompound(TagUtil.readUnnamedTag(stream, projection));
+        }
+    }
+
+    /**
+     * Reads a compound tag from the given data, using the given compression
+     * to decompress the data before reading it, and only loading the entries
+     * selected by the given projection.
+     *
+     * <p>Uncompressed data is read directly from the given array, without
+     * being copied.</p>
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @param projection the projection selecting the entries to load
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     * @see #read(InputStream, TagCompression, TagProjection)
+     */
+    public static @NotNull CompoundTag read(final byte@NotNull[] data, final @NotNull TagCompression compression,
+                                            final @NotNull TagProjection projection) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.ensureCompound(TagUtil.readUnnamedTag(BufferedTagInput.of(data), projection));
+        return read(new ByteArrayInputStream(data), compression, projection);
+    }
+
+    /**
+     * Reads a compound tag from the given path, using the given compression
+     * to decompress the input before reading the data, and only loading the
+     * entries selected by the given projection, opening a new stream with the
+     * given open options.
+     *
+     * @param path the path to read from
+     * @param compression the compression to decompress the data with
+     * @param projection the projection selecting the entries to load
+     * @param options the options to open the stream with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     * @see #read(InputStream, TagCompression, TagProjection)
+     */
+    public static @NotNull CompoundTag read(final @NotNull Path path, final @NotNull TagCompression compression,
+                                            final @NotNull TagProjection projection,
+                                            final @NotNull OpenOption@NotNull... options) throws IOException {
+        return read(Files.newInputStream(path, options), compression, projection);
+    }
+
+    /**
+     * Reads a mutable compound tag from the given input, using the given
+     * compression to decompress the input before reading the data.
+     *
+     * <p>All the compounds and lists in the result are mutable, and are built
+     * directly, so this is much cheaper than reading a compound and then
+     * converting it with {@link CompoundTag#asMutable()}.</p>
+     *
+     * @param input the input to read from
+     * @param compression the compression to decompress the data with
+     * @return the resulting mutable compound tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull MutableCompoundTag readMutable(final @NotNull InputStream input,
+                                                          final @NotNull TagCompression compression) throws IOException {
+        try (final InputStream stream = compression.decompress(input)) {
+            return TagUtil.readMutableCompound(stream);
+        }
+    }
+
+    /**
+     * Reads a mutable compound tag from the given data, using the given
+     * compression to decompress the data before reading it.
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @return the resulting mutable compound tag
+     * @throws IOException if an I/O error occurs
+     * @see #readMutable(InputStream, TagCompression)
+     */
+    public static @NotNull MutableCompoundTag readMutable(final byte@NotNull[] data, final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.readMutableCompound(BufferedTagInput.of(data));
+        return readMutable(new ByteArrayInputStream(data), compression);
+    }
+
+    /**
+     * Reads a mutable compound tag from the given path, using the given
+     * compression to decompress the input before reading the data, opening a
+     * new stream with the given open options.
+     *
+     * @param path the path to read from
+     * @param compression the compression to decompress the data with
+     * @param options the options to open the stream with
+     * @return the resulting mutable compound tag
+     * @throws IOException if an I/O error occurs
+     * @see #readMutable(InputStream, TagCompression)
+     */
+    public static @NotNull MutableCompoundTag readMutable(final @NotNull Path path, final @NotNull TagCompression compression,
+                                                          final @NotNull OpenOption@NotNull... options) throws IOException {
+        return readMutable(Files.newInputStream(path, options), compression);
+    }
+
+    /**
+     * Reads a compound tag from the uncompressed file at the given path by
+     * mapping the file in to memory.
+     *
+     * <p>This avoids copying the file through the heap, which makes it much
+     * cheaper than reading it through a stream for large files.</p>
+     *
+     * @param path the path to read from
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs
+     * @see BufferedTagInput#map(Path)
+     */
+    public static @NotNull CompoundTag readMapped(final @NotNull Path path) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.map(path)) {
+            return TagUtil.ensureCompound(TagUtil.readUnnamedTag(input));
+        }
+    }
+
+    /**
+     * Reads a compound tag from the given data, using the given compression
+     * to decompress the data before reading it, which only decodes its
+     * entries when they are first accessed.
+     *
+     * <p>Reading the data only makes a single pass over it to find the
+     * entries of the compound, without decoding them, which is far cheaper
+     * than a full read when only a few entries of a large compound are
+     * needed. Nested compounds are also read lazily, and writing the result
+     * copies any entries that have not been decoded straight from the
+     * data.</p>
+     *
+     * <p>Uncompressed data is read directly from the given array, without
+     * being copied, so the array must not be modified whilst the result is
+     * in use.</p>
+     *
+     * <p>As values are decoded later, this only fails if the structure of
+     * the data is malformed. Malformed values, such as invalid strings, are
+     * thrown as {@link java.io.UncheckedIOException}s when they are first
+     * accessed through the result.</p>
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs, or the structure of the
+     * data is malformed
+     * @see ImmutableCompoundTag#lazy(ByteBuffer)
+     */
+    public static @NotNull CompoundTag readLazy(final byte@NotNull[] data, final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.readLazyCompound(ByteBuffer.wrap(data));
+        return readLazy(new ByteArrayInputStream(data), compression);
+    }
+
+    /**
+     * Reads a compound tag from the remaining bytes of the given buffer,
+     * using the given compression to decompress the data before reading it,
+     * which only decodes its entries when they are first accessed.
+     *
+     * <p>Uncompressed data is read directly from the given buffer, without
+     * being copied, so the contents of the buffer must not be modified whilst
+     * the result is in use. The position of the buffer is advanced past the
+     * bytes that were read.</p>
+     *
+     * @param input the buffer to read from
+     * @param compression the compression to decompress the data with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs, or the data is malformed
+     * @see #readLazy(byte[], TagCompression)
+     */
+    public static @NotNull CompoundTag readLazy(final @NotNull ByteBuffer input, final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.readLazyCompound(input);
+        return readLazy(new ByteBufferInputStream(input), compression);
+    }
+
+    /**
+     * Reads a compound tag from the file at the given path, using the given
+     * compression to decompress the data before reading it, which only
+     * decodes its entries when they are first accessed.
+     *
+     * <p>The whole file is read in to memory, as the result reads from it for
+     * as long as it is in use.</p>
+     *
+     * @param path the path to read from
+     * @param compression the compression to decompress the data with
+     * @return the resulting compound tag
+     * @throws IOException if an I/O error occurs, or the data is malformed
+     * @see #readLazy(byte[], TagCompression)
+     */
+    public static @NotNull CompoundTag readLazy(final @NotNull Path path, final @NotNull TagCompression compression) throws IOException {
+        return readLazy(Files.readAllBytes(path), compression);
+    }
+
+    private static CompoundTag readLazy(final InputStream input, final TagCompression compression) throws IOException {
+        // Lazy compounds read from their data for as long as they live, so we need all of it up front.
+        try (final InputStream stream = compression.decompress(input)) {
+            return TagUtil.readLazyCompound(ByteBuffer.wrap(stream.readAllBytes()));
+        }
+    }
+
     /**
      * Reads a named tag from the given input, using the given compression to
      * decompress the input before reading the data.
@@ -84,6 +351,84 @@ public final class TagIO {
         }
     }
 
+    /**
+     * Reads a named tag from the given input, using the given compression to
+     * decompress the input before reading the data, and only loading the
+     * entries selected by the given projection if the tag is a compound.
+     *
+     * @param input the input to read from
+     * @param compression the compression to decompress the data with
+     * @param projection the projection selecting the entries to load
+     * @return the resulting named tag
+     * @throws IOException if an I/O error occurs
+     * @see #read(InputStream, TagCompression, TagProjection)
+     */
+    public static @NotNull NamedTag readNamed(final @NotNull InputStream input, final @NotNull TagCompression compression,
+                                              final @NotNull TagProjection projection) throws IOException {
+        try (final InputStream stream = compression.decompress(input)) {
+            return TagUtil.readNamedTag(stream, projection);
+        }
+    }
+
+    /**
+     * Reads a named tag from the given data, using the given compression to
+     * decompress the data before reading it, and only loading the entries
+     * selected by the given projection if the tag is a compound.
+     *
+     * <p>Uncompressed data is read directly from the given array, without
+     * being copied.</p>
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @param projection the projection selecting the entries to load
+     * @return the resulting named tag
+     * @throws IOException if an I/O error occurs
+     * @see #read(InputStream, TagCompression, TagProjection)
+     */
+    public static @NotNull NamedTag readNamed(final byte@NotNull[] data, final @NotNull TagCompression compression,
+                                              final @NotNull TagProjection projection) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.readNamedTag(BufferedTagInput.of(data), projection);
+        return readNamed(new ByteArrayInputStream(data), compression, projection);
+    }
+
+    /**
+     * Reads a named tag from the given data, using the given compression to
+     * decompress the data before reading it.
+     *
+     * <p>Uncompressed data is read directly from the given array, without
+     * being copied.</p>
+     *
+     * @param data the data to read
+     * @param compression the compression to decompress the data with
+     * @return the resulting named tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull NamedTag readNamed(final byte@NotNull[] data, final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.readNamedTag(BufferedTagInput.of(data));
+        return readNamed(new ByteArrayInputStream(data), compression);
+    }
+
+    /**
+     * Reads a named tag from the remaining bytes of the given buffer, using
+     * the given compression to decompress the data before reading it.
+     *
+     * <p>Uncompressed data is read directly from the given buffer, without
+     * being copied. The position of the buffer is advanced past the bytes
+     * that were read.</p>
+     *
+     * @param input the buffer to read from
+     * @param compression the compression to decompress the data with
+     * @return the resulting named tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static @NotNull NamedTag readNamed(final @NotNull ByteBuffer input, final @NotNull TagCompression compression) throws IOException {
+        if (compression != TagCompression.NONE) return readNamed(new ByteBufferInputStream(input), compression);
+        final BufferedTagInput data = BufferedTagInput.of(input);
+        final NamedTag result = TagUtil.readNamedTag(data);
+        input.position(data.position());
+        return result;
+    }
+
     /**
      * Reads a named tag from the given path, using the given compression to
      * decompress the input before reading the data, opening a new stream with
@@ -113,6 +458,79 @@ public final class TagIO {
         return readNamed(new FileInputStream(file), compression);
     }
 
+    /**
+     * Reads a named tag from the uncompressed file at the given path by
+     * mapping the file in to memory.
+     *
+     * <p>This avoids copying the file through the heap, which makes it much
+     * cheaper than reading it through a stream for large files.</p>
+     *
+     * @param path the path to read from
+     * @return the resulting named tag
+     * @throws IOException if an I/O error occurs
+     * @see BufferedTagInput#map(Path)
+     */
+    public static @NotNull NamedTag readNamedMapped(final @NotNull Path path) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.map(path)) {
+            return TagUtil.readNamedTag(input);
+        }
+    }
+
+    /**
+     * Parses the named tag from the given input with the given visitor, using
+     * the given compression to decompress the input before reading the data.
+     *
+     * <p>The root tag is visited with
+     * {@link org.kryptonmc.nbt.TagType#parseRoot(java.io.DataInput, StreamingTagVisitor)},
+     * so anything the visitor skips is never loaded.</p>
+     *
+     * @param input the input to read from
+     * @param compression the compression to decompress the data with
+     * @param visitor the visitor to visit the data with
+     * @throws IOException if an I/O error occurs
+     */
+    public static void parse(final @NotNull InputStream input, final @NotNull TagCompression compression,
+                             final @NotNull StreamingTagVisitor visitor) throws IOException {
+        try (final BufferedTagInput data = BufferedTagInput.of(compression.decompress(input))) {
+            TagUtil.parseNamedTag(data, visitor);
+        }
+    }
+
+    /**
+     * Parses the named tag from the given path with the given visitor, using
+     * the given compression to decompress the input before reading the data,
+     * opening a new stream with the given open options.
+     *
+     * @param path the path to read from
+     * @param compression the compression to decompress the data with
+     * @param visitor the visitor to visit the data with
+     * @param options the options to open the stream with
+     * @throws IOException if an I/O error occurs
+     * @see #parse(InputStream, TagCompression, StreamingTagVisitor)
+     */
+    public static void parse(final @NotNull Path path, final @NotNull TagCompression compression, final @NotNull StreamingTagVisitor visitor,
+                             final @NotNull OpenOption@NotNull... options) throws IOException {
+        parse(Files.newInputStream(path, options), compression, visitor);
+    }
+
+    /**
+     * Parses the named tag from the uncompressed file at the given path with
+     * the given visitor, by mapping the file in to memory.
+     *
+     * <p>Only the parts of the file that the visitor enters are paged in, so
+     * pulling a single value out of a very large file is cheap.</p>
+     *
+     * @param path the path to read from
+     * @param visitor the visitor to visit the data with
+     * @throws IOException if an I/O error occurs
+     * @see #parse(InputStream, TagCompression, StreamingTagVisitor)
+     */
+    public static void parseMapped(final @NotNull Path path, final @NotNull StreamingTagVisitor visitor) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.map(path)) {
+            TagUtil.parseNamedTag(input, visitor);
+        }
+    }
+
     /**
      * Writes an unnamed compound tag to the given output, using the given
      * compression to compress the output before writing the data.
@@ -127,6 +545,27 @@ public final class TagIO {
         writeNamed(output, "", value, compression);
     }
 
+    /**
+     * Writes an unnamed compound tag in to the remaining space of the given
+     * buffer, using the given compression to compress the output before
+     * writing the data.
+     *
+     * <p>The position of the buffer is advanced past the bytes that were
+     * written. If there is not enough space remaining in the buffer, its
+     * position is left unchanged.</p>
+     *
+     * @param output the buffer to write to
+     * @param value the value to write
+     * @param compression the compression to compress the data with
+     * @throws IOException if an I/O error occurs
+     * @throws BufferOverflowException if there is not enough space remaining
+     * in the buffer
+     */
+    public static void write(final @NotNull ByteBuffer output, final @NotNull CompoundTag value,
+                             final @NotNull TagCompression compression) throws IOException {
+        writeNamed(output, "", value, compression);
+    }
+
     /**
      * Writes an unnamed compound tag to the given path, using the given
      * compression to compress the output before writing the data, opening a
@@ -174,6 +613,37 @@ public final class TagIO {
         }
     }
 
+    /**
+     * Writes a named tag in to the remaining space of the given buffer, using
+     * the given compression to compress the output before writing the data.
+     *
+     * <p>The position of the buffer is advanced past the bytes that were
+     * written. If there is not enough space remaining in the buffer, its
+     * position is left unchanged.</p>
+     *
+     * @param output the buffer to write to
+     * @param name the name of the value to write
+     * @param value the value to write
+     * @param compression the compression to compress the data with
+     * @throws IOException if an I/O error occurs
+     * @throws BufferOverflowException if there is not enough space remaining
+     * in the buffer
+     */
+    public static void writeNamed(final @NotNull ByteBuffer output, final @NotNull String name, final @NotNull CompoundTag value,
+                                  final @NotNull TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) {
+            final BufferedTagOutput data = BufferedTagOutput.of(output);
+            TagUtil.writeNamedTag(data, name, value);
+            output.position(data.position());
+            return;
+        }
+        final ByteBuffer target = output.duplicate();
+        try (final OutputStream stream = compression.compress(new ByteBufferOutputStream(target))) {
+            TagUtil.writeNamedTag(stream, name, value);
+        }
+        output.position(target.position());
+    }
+
     /**
      * Writes a named tag to the given path, using the given compression to
      * compress the output before writing the data, opening a new stream with
@@ -206,6 +676,104 @@ public final class TagIO {
         writeNamed(new FileOutputStream(file), name, value, compression);
     }
 
+    /**
+     * Gets the exact amount of bytes that writing the given named tag without
+     * compression will write, including the ID and name of the tag.
+     *
+     * @param name the name of the value
+     * @param value the value
+     * @return the size in bytes
+     * @see org.kryptonmc.nbt.Tag#sizeInBytes()
+     */
+    public static int sizeInBytes(final @NotNull String name, final @NotNull CompoundTag value) {
+        return TagUtil.sizeOfNamedTag(name, value);
+    }
+
+    /**
+     * Writes an unnamed compound tag in to a new byte array, without any
+     * compression.
+     *
+     * <p>The array is allocated once, with exactly the size of the data, so
+     * there is no growing or copying involved.</p>
+     *
+     * @param value the value to write
+     * @return the written data
+     * @throws IOException if an I/O error occurs
+     */
+    public static byte@NotNull[] toByteArray(final @NotNull CompoundTag value) throws IOException {
+        return toByteArray("", value);
+    }
+
+    /**
+     * Writes a named tag in to a new byte array, without any compression.
+     *
+     * <p>The array is allocated once, with exactly the size of the data, so
+     * there is no growing or copying involved.</p>
+     *
+     * @param name the name of the value to write
+     * @param value the value to write
+     * @return the written data
+     * @throws IOException if an I/O error occurs
+     */
+    public static byte@NotNull[] toByteArray(final @NotNull String name, final @NotNull CompoundTag value) throws IOException {
+        return TagUtil.writeNamedTagToBytes(name, value);
+    }
+
+    /**
+     * Writes all the given named tags, each in to its own byte array, using
+     * the given compression to compress each one, in parallel on the given
+     * executor.
+     *
+     * <p>The tags are split in to batches, roughly a few per available
+     * processor, and each batch is written on the executor. Each thread
+     * serializes and compresses in to a buffer that it reuses for every tag
+     * it writes, so the only allocation per tag is the resulting array.</p>
+     *
+     * <p>If writing any of the tags fails, the returned future completes
+     * exceptionally with a {@link CompletionException} caused by the
+     * {@link IOException}.</p>
+     *
+     * @param tags the tags to write
+     * @param compression the compression to compress the data with
+     * @param executor the executor to write the tags on
+     * @return a future of the written data of each tag, in the same order as
+     * the given tags
+     */
+    public static @NotNull CompletableFuture<@NotNull List<byte@NotNull[]>> writeAll(final @NotNull Collection<? extends @NotNull NamedTag> tags,
+                                                                                    final @NotNull TagCompression compression,
+                                                                                    final @NotNull Executor executor) {
+        final NamedTag[] input = tags.toArray(NamedTag[]::new);
+        final byte[][] results = new byte[input.length][];
+        final int batches = Math.min(input.length, Runtime.getRuntime().availableProcessors() * 4);
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[batches];
+        for (int batch = 0; batch < batches; batch++) {
+            final int start = (int) ((long) input.length * batch / batches);
+            final int end = (int) ((long) input.length * (batch + 1) / batches);
+            futures[batch] = CompletableFuture.runAsync(() -> {
+                for (int i = start; i < end; i++) {
+                    try {
+                        results[i] = writeToBytes(input[i], compression);
+                    } catch (final IOException exception) {
+                        throw new CompletionException(exception);
+                    }
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(futures).thenApply(ignored -> List.of(results));
+    }
+
+    private static byte[] writeToBytes(final NamedTag tag, final TagCompression compression) throws IOException {
+        if (compression == TagCompression.NONE) return TagUtil.writeNamedTagToBytes(tag.name(), tag.tag());
+        final ByteArrayOutputStream output = BATCH_OUTPUT.get();
+        output.reset();
+        try (final OutputStream stream = compression.compress(output)) {
+            TagUtil.writeNamedTag(stream, tag.name(), tag.tag());
+        }
+        final byte[] result = output.toByteArray();
+        if (result.length > MAX_RETAINED_OUTPUT) BATCH_OUTPUT.remove();
+        return result;
+    }
+
     private TagIO() {
         throw new AssertionError("This class cannot be instantiated!");
     }
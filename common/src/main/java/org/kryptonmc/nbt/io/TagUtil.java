@@ -8,54 +8,159 @@
  */
 package org.kryptonmc.nbt.io;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import org.kryptonmc.nbt.CompoundTag;
 import org.kryptonmc.nbt.EndTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.MutableCompoundTag;
+import org.kryptonmc.nbt.StringTag;
 import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.TagProjection;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
 import org.kryptonmc.nbt.util.Types;
+import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
 
 final class TagUtil {
 
     private static final NamedTag END_NAMED = new NamedTag("", EndTag.INSTANCE);
 
     static Tag readUnnamedTag(final InputStream inputStream) throws IOException {
-        final var input = ensureDataInput(inputStream);
-        final var type = input.read();
+        try (final BufferedTagInput input = BufferedTagInput.of(inputStream)) {
+            return readUnnamedTag(input);
+        }
+    }
+
+    static Tag readUnnamedTag(final DataInput input) throws IOException {
+        final var type = input.readUnsignedByte();
         if (type == EndTag.ID) return EndTag.INSTANCE;
         input.skipBytes(input.readUnsignedShort());
         return Types.of(type).load(input, 0);
     }
 
+    static Tag readUnnamedTag(final InputStream inputStream, final TagProjection projection) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.of(inputStream)) {
+            return readUnnamedTag(input, projection);
+        }
+    }
+
+    static Tag readUnnamedTag(final DataInput input, final TagProjection projection) throws IOException {
+        final var type = input.readUnsignedByte();
+        if (type == EndTag.ID) return EndTag.INSTANCE;
+        input.skipBytes(input.readUnsignedShort());
+        return loadProjected(type, input, projection);
+    }
+
+    static MutableCompoundTag readMutableCompound(final InputStream inputStream) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.of(inputStream)) {
+            return readMutableCompound(input);
+        }
+    }
+
+    static MutableCompoundTag readMutableCompound(final DataInput input) throws IOException {
+        if (input.readUnsignedByte() != CompoundTag.ID) throw new IOException("Root tag must be an unnamed compound!");
+        input.skipBytes(input.readUnsignedShort());
+        // Compounds are always loaded as mutable compounds by loadMutable.
+        return (MutableCompoundTag) CompoundTag.TYPE.loadMutable(input, 0);
+    }
+
+    static CompoundTag readLazyCompound(final ByteBuffer data) throws IOException {
+        // We read the header by hand, as the buffer may not be big-endian, and we mustn't change its order.
+        if (data.remaining() < Byte.BYTES + Short.BYTES || data.get() != CompoundTag.ID) throw new IOException("Root tag must be an unnamed compound!");
+        final int nameLength = (data.get() & 0xFF) << 8 | data.get() & 0xFF;
+        if (data.remaining() < nameLength) throw new EOFException();
+        data.position(data.position() + nameLength);
+        return ImmutableCompoundTag.lazy(data);
+    }
+
     static NamedTag readNamedTag(final InputStream inputStream) throws IOException {
-        final var input = ensureDataInput(inputStream);
-        final var type = input.read();
+        try (final BufferedTagInput input = BufferedTagInput.of(inputStream)) {
+            return readNamedTag(input);
+        }
+    }
+
+    static NamedTag readNamedTag(final DataInput input) throws IOException {
+        final var type = input.readUnsignedByte();
         if (type == EndTag.ID) return END_NAMED;
-        final var name = input.readUTF();
+        final var name = ModifiedUtf8.read(input);
         final var tag = Types.of(type).load(input, 0);
         return new NamedTag(name, tag);
     }
 
+    static NamedTag readNamedTag(final InputStream inputStream, final TagProjection projection) throws IOException {
+        try (final BufferedTagInput input = BufferedTagInput.of(inputStream)) {
+            return readNamedTag(input, projection);
+        }
+    }
+
+    static NamedTag readNamedTag(final DataInput input, final TagProjection projection) throws IOException {
+        final var type = input.readUnsignedByte();
+        if (type == EndTag.ID) return END_NAMED;
+        final var name = ModifiedUtf8.read(input);
+        return new NamedTag(name, loadProjected(type, input, projection));
+    }
+
+    private static Tag loadProjected(final int type, final DataInput input, final TagProjection projection) throws IOException {
+        // Projections only apply to compounds, so any other root is loaded in full.
+        if (type == CompoundTag.ID) return projection.load(input, 0);
+        return Types.of(type).load(input, 0);
+    }
+
+    static void parseNamedTag(final DataInput input, final StreamingTagVisitor visitor) throws IOException {
+        final var type = Types.of(input.readUnsignedByte());
+        if (type == EndTag.TYPE) {
+            if (visitor.visitRootEntry(EndTag.TYPE) == StreamingTagVisitor.ValueResult.CONTINUE) visitor.visitEnd();
+            return;
+        }
+        input.skipBytes(input.readUnsignedShort());
+        type.parseRoot(input, visitor);
+    }
+
     static void writeNamedTag(final OutputStream outputStream, final String name, final Tag value) throws IOException {
-        final var output = outputStream instanceof final DataOutputStream data ? data : new DataOutputStream(outputStream);
+        try (final BufferedTagOutput output = BufferedTagOutput.of(outputStream)) {
+            writeNamedTag(output, name, value);
+        }
+    }
+
+    static void writeNamedTag(final DataOutput output, final String name, final Tag value) throws IOException {
         output.writeByte(value.id());
         if (value.id() == EndTag.ID) return;
-        output.writeUTF(name);
+        ModifiedUtf8.write(output, name);
         value.write(output);
     }
 
+    static int sizeOfNamedTag(final String name, final Tag value) {
+        if (value.id() == EndTag.ID) return Byte.BYTES;
+        return Byte.BYTES + StringTag.of(name).sizeInBytes() + value.sizeInBytes();
+    }
+
+    static byte[] writeNamedTagToBytes(final String name, final Tag value) throws IOException {
+        final byte[] result = new byte[sizeOfNamedTag(name, value)];
+        final BufferedTagOutput output = BufferedTagOutput.of(ByteBuffer.wrap(result));
+        try {
+            writeNamedTag(output, name, value);
+        } catch (final BufferOverflowException exception) {
+            throw new IllegalStateException("Tag grew while being written! Expected " + result.length + " bytes.", exception);
+        }
+        // A child that shrank between sizing and writing would otherwise leave trailing zeroes in the result.
+        if (output.position() != result.length) {
+            throw new IllegalStateException("Tag shrank while being written! Expected " + result.length + " bytes, but only wrote " +
+                    output.position() + ".");
+        }
+        return result;
+    }
+
     static CompoundTag ensureCompound(final Tag tag) throws IOException {
         if (tag instanceof final CompoundTag compound) return compound;
         throw new IOException("Root tag must be an unnamed compound!");
     }
 
-    private static DataInputStream ensureDataInput(final InputStream input) {
-        return input instanceof final DataInputStream data ? data : new DataInputStream(input);
-    }
-
     private TagUtil() {
     }
 }
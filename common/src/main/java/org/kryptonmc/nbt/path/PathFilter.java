@@ -0,0 +1,153 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.path;
+
+import java.util.List;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.DoubleTag;
+import org.kryptonmc.nbt.FloatTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.NumberTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.Tag;
+
+/**
+ * A step that selects the compound elements of a list that have an entry
+ * with a given name, optionally compared against a literal value.
+ *
+ * <p>Values are only ever equal to literals of the same kind, so strings are
+ * never equal to numbers, and ordering comparisons between different kinds
+ * never match. Whole numbers are compared exactly, and are only compared as
+ * doubles against decimal values. Compounds without the entry never
+ * match.</p>
+ */
+final class PathFilter implements PathStep {
+
+    // Comparisons that cannot be ordered, such as against NaN, or between different kinds of value.
+    private static final int UNORDERED = 2;
+
+    private final String key;
+    private final Operator operator;
+    private final @Nullable String string;
+    private final boolean integral;
+    private final long longValue;
+    private final double doubleValue;
+
+    private PathFilter(final String key, final Operator operator, final @Nullable String string, final boolean integral,
+                       final long longValue, final double doubleValue) {
+        this.key = key;
+        this.operator = operator;
+        this.string = string;
+        this.integral = integral;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+    }
+
+    static PathFilter exists(final String key) {
+        return new PathFilter(key, Operator.EXISTS, null, false, 0, 0);
+    }
+
+    static PathFilter compare(final String key, final Operator operator, final String value) {
+        return new PathFilter(key, operator, value, false, 0, 0);
+    }
+
+    static PathFilter compare(final String key, final Operator operator, final long value) {
+        return new PathFilter(key, operator, null, true, value, value);
+    }
+
+    static PathFilter compare(final String key, final Operator operator, final double value) {
+        return new PathFilter(key, operator, null, false, 0, value);
+    }
+
+    String key() {
+        return key;
+    }
+
+    /**
+     * Checks if this filter only checks if the entry exists, in which case
+     * its value is never needed.
+     *
+     * @return true if this filter only checks if the entry exists
+     */
+    boolean exists() {
+        return operator == Operator.EXISTS;
+    }
+
+    boolean matches(final String value) {
+        if (string == null) return operator.test(UNORDERED);
+        return operator.test(Integer.signum(value.compareTo(string)));
+    }
+
+    boolean matches(final long value) {
+        if (string != null) return operator.test(UNORDERED);
+        return integral ? operator.test(Long.compare(value, longValue)) : matches((double) value);
+    }
+
+    boolean matches(final double value) {
+        if (string != null) return operator.test(UNORDERED);
+        return operator.test(value < doubleValue ? -1 : value > doubleValue ? 1 : value == doubleValue ? 0 : UNORDERED);
+    }
+
+    /**
+     * Checks if an entry that is not a number or a string matches.
+     *
+     * @return true if this filter matches such entries
+     */
+    boolean matchesOther() {
+        return operator.test(UNORDERED);
+    }
+
+    boolean test(final Tag tag) {
+        if (!(tag instanceof final CompoundTag compound)) return false;
+        final Tag value = compound.get(key);
+        if (value == null) return false;
+        if (exists()) return true;
+        if (value instanceof final StringTag stringTag) return matches(stringTag.value());
+        if (value instanceof FloatTag || value instanceof DoubleTag) return matches(((NumberTag) value).toDouble());
+        if (value instanceof final NumberTag number) return matches(number.toLong());
+        return matchesOther();
+    }
+
+    @Override
+    public boolean selectsEntries() {
+        return false;
+    }
+
+    @Override
+    public void select(final Tag tag, final List<Tag> selected) {
+        if (!(tag instanceof final ListTag list)) return;
+        for (final Tag element : list.getData()) {
+            if (test(element)) selected.add(element);
+        }
+    }
+
+    enum Operator {
+
+        EXISTS,
+        EQUAL,
+        NOT_EQUAL,
+        LESS,
+        LESS_OR_EQUAL,
+        GREATER,
+        GREATER_OR_EQUAL;
+
+        boolean test(final int comparison) {
+            return switch (this) {
+                case EXISTS -> true;
+                case EQUAL -> comparison == 0;
+                case NOT_EQUAL -> comparison != 0;
+                case LESS -> comparison < 0;
+                case LESS_OR_EQUAL -> comparison <= 0;
+                case GREATER -> comparison == 1;
+                case GREATER_OR_EQUAL -> comparison == 0 || comparison == 1;
+            };
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parser for path expressions.
+ *
+ * @see TagPath#compile(String)
+ */
+final class PathParser {
+
+    private static final PathStep ANY_NAME = new PathStep.AnyName();
+    private static final PathStep ANY_ELEMENT = new PathStep.AnyElement();
+
+    private final String expression;
+    private int position;
+
+    private PathParser(final String expression) {
+        this.expression = expression;
+    }
+
+    static PathStep[] parse(final String expression) {
+        return new PathParser(expression).parse();
+    }
+
+    private PathStep[] parse() {
+        final List<PathStep> steps = new ArrayList<>();
+        if (peek() != '[') steps.add(parseName());
+        while (position < expression.length()) {
+            final char next = expression.charAt(position++);
+            if (next == '.') {
+                steps.add(parseName());
+            } else if (next == '[') {
+                steps.add(parseSelector());
+            } else {
+                throw error("Expected '.' or '['");
+            }
+        }
+        if (steps.isEmpty()) throw error("Expected at least one step");
+        return steps.toArray(new PathStep[0]);
+    }
+
+    private PathStep parseName() {
+        if (peek() == '*') {
+            position++;
+            return ANY_NAME;
+        }
+        return new PathStep.Name(parseKey());
+    }
+
+    private PathStep parseSelector() {
+        skipWhitespace();
+        final PathStep step;
+        final char next = peek();
+        if (next == '*') {
+            position++;
+            step = ANY_ELEMENT;
+        } else if (next == '?') {
+            position++;
+            step = parseFilter();
+        } else {
+            final int start = position;
+            if (next == '-') position++;
+            while (Character.isDigit(peek())) {
+                position++;
+            }
+            try {
+                step = new PathStep.Index(Integer.parseInt(expression, start, position, 10));
+            } catch (final NumberFormatException exception) {
+                position = start;
+                throw error("Expected '*', '?' or an index");
+            }
+        }
+        skipWhitespace();
+        expect(']');
+        return step;
+    }
+
+    private PathFilter parseFilter() {
+        skipWhitespace();
+        final String key = parseKey();
+        skipWhitespace();
+        final PathFilter.Operator operator = parseOperator();
+        if (operator == PathFilter.Operator.EXISTS) return PathFilter.exists(key);
+        skipWhitespace();
+        final char next = peek();
+        if (next == '\'' || next == '"') return PathFilter.compare(key, operator, parseQuoted());
+        return parseNumber(key, operator);
+    }
+
+    private PathFilter.Operator parseOperator() {
+        final char first = peek();
+        final boolean equals = position + 1 < expression.length() && expression.charAt(position + 1) == '=';
+        final PathFilter.Operator operator = switch (first) {
+            case '=' -> equals ? PathFilter.Operator.EQUAL : null;
+            case '!' -> equals ? PathFilter.Operator.NOT_EQUAL : null;
+            case '<' -> equals ? PathFilter.Operator.LESS_OR_EQUAL : PathFilter.Operator.LESS;
+            case '>' -> equals ? PathFilter.Operator.GREATER_OR_EQUAL : PathFilter.Operator.GREATER;
+            case ']' -> PathFilter.Operator.EXISTS;
+            default -> null;
+        };
+        if (operator == null) throw error("Expected a comparison operator or ']'");
+        if (operator != PathFilter.Operator.EXISTS) position += equals ? 2 : 1;
+        return operator;
+    }
+
+    private PathFilter parseNumber(final String key, final PathFilter.Operator operator) {
+        final int start = position;
+        while (position < expression.length() && "+-.0123456789eE".indexOf(expression.charAt(position)) >= 0) {
+            position++;
+        }
+        final String number = expression.substring(start, position);
+        // SNBT style type suffixes only say how the number was written, as we compare by value.
+        boolean decimal = number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0;
+        final char suffix = Character.toLowerCase(peek());
+        if (suffix == 'f' || suffix == 'd') {
+            decimal = true;
+            position++;
+        } else if (suffix == 'b' || suffix == 's' || suffix == 'l') {
+            position++;
+        }
+        try {
+            if (decimal) return PathFilter.compare(key, operator, Double.parseDouble(number));
+            return PathFilter.compare(key, operator, Long.parseLong(number));
+        } catch (final NumberFormatException exception) {
+            position = start;
+            throw error("Expected a string or a number");
+        }
+    }
+
+    private String parseKey() {
+        final char next = peek();
+        if (next == '\'' || next == '"') return parseQuoted();
+        final int start = position;
+        while (position < expression.length() && isNameCharacter(expression.charAt(position))) {
+            position++;
+        }
+        if (position == start) throw error("Expected a name");
+        return expression.substring(start, position);
+    }
+
+    private String parseQuoted() {
+        final char quote = expression.charAt(position++);
+        final StringBuilder builder = new StringBuilder();
+        while (position < expression.length()) {
+            final char next = expression.charAt(position++);
+            if (next == quote) return builder.toString();
+            if (next == '\\') {
+                if (position == expression.length()) break;
+                builder.append(expression.charAt(position++));
+            } else {
+                builder.append(next);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private static boolean isNameCharacter(final char character) {
+        return !Character.isWhitespace(character) && ".[]'\"=!<>?*".indexOf(character) < 0;
+    }
+
+    private void skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void expect(final char expected) {
+        if (peek() != expected) throw error("Expected '" + expected + '\'');
+        position++;
+    }
+
+    private char peek() {
+        return position < expression.length() ? expression.charAt(position) : 0;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in path " + expression + '!');
+    }
+}
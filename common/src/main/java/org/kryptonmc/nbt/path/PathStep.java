@@ -0,0 +1,104 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.path;
+
+import java.util.List;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.Tag;
+
+/**
+ * A single step of a compiled path, which selects children of a compound or
+ * elements of a list.
+ */
+sealed interface PathStep permits PathStep.Name, PathStep.AnyName, PathStep.Index, PathStep.AnyElement, PathFilter {
+
+    /**
+     * Checks if this step selects entries of compounds, rather than elements
+     * of lists.
+     *
+     * @return true if this step selects entries of compounds
+     */
+    boolean selectsEntries();
+
+    /**
+     * Adds everything this step selects from the given tag to the given list.
+     *
+     * @param tag the tag to select from
+     * @param selected the list to add the selected tags to
+     */
+    void select(Tag tag, List<Tag> selected);
+
+    record Name(String name) implements PathStep {
+
+        @Override
+        public boolean selectsEntries() {
+            return true;
+        }
+
+        @Override
+        public void select(final Tag tag, final List<Tag> selected) {
+            if (!(tag instanceof final CompoundTag compound)) return;
+            final Tag value = compound.get(name);
+            if (value != null) selected.add(value);
+        }
+    }
+
+    record AnyName() implements PathStep {
+
+        @Override
+        public boolean selectsEntries() {
+            return true;
+        }
+
+        @Override
+        public void select(final Tag tag, final List<Tag> selected) {
+            if (tag instanceof final CompoundTag compound) selected.addAll(compound.values());
+        }
+    }
+
+    record Index(int index) implements PathStep {
+
+        @Override
+        public boolean selectsEntries() {
+            return false;
+        }
+
+        @Override
+        public void select(final Tag tag, final List<Tag> selected) {
+            if (!(tag instanceof final ListTag list)) return;
+            final int resolved = resolve(list.size());
+            if (resolved >= 0 && resolved < list.size()) selected.add(list.get(resolved));
+        }
+
+        /**
+         * Resolves the index this step selects in a list of the given size,
+         * which counts from the end of the list for negative indexes.
+         *
+         * @param size the size of the list
+         * @return the resolved index
+         */
+        int resolve(final int size) {
+            return index < 0 ? size + index : index;
+        }
+    }
+
+    record AnyElement() implements PathStep {
+
+        @Override
+        public boolean selectsEntries() {
+            return false;
+        }
+
+        @Override
+        public void select(final Tag tag, final List<Tag> selected) {
+            if (tag instanceof final ListTag list) selected.addAll(list.getData());
+        }
+    }
+}
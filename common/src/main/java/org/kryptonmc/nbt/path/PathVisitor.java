@@ -0,0 +1,345 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.ByteArrayTag;
+import org.kryptonmc.nbt.ByteTag;
+import org.kryptonmc.nbt.CollectingTagVisitor;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.DoubleTag;
+import org.kryptonmc.nbt.FloatTag;
+import org.kryptonmc.nbt.IntArrayTag;
+import org.kryptonmc.nbt.IntTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.LongArrayTag;
+import org.kryptonmc.nbt.LongTag;
+import org.kryptonmc.nbt.ShortTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.TagType;
+import org.kryptonmc.nbt.visitor.StreamingTagVisitor;
+
+/**
+ * A streaming visitor that collects the values selected by a {@link TagPath}.
+ *
+ * <p>Only the containers that lie on the path are entered. Everything else
+ * is skipped by returning {@link EntryResult#SKIP} or
+ * {@link EntryResult#BREAK}, so it is skipped with
+ * {@link TagType#skip(java.io.DataInput)} and never decoded. Where the type
+ * of an entry shows that it cannot be on the path, it is skipped before its
+ * name is even read. Once a path without wildcards or filters has found its
+ * value, visiting halts entirely.</p>
+ *
+ * <p>Selected values are decoded in to tags, and selected compounds and lists
+ * are built in full. For filtered list elements, values that are selected
+ * before the filtered entry is found are discarded if the filter does not
+ * match.</p>
+ *
+ * <p>Visitors can be reused by calling {@link #reset()} between uses.
+ * Instances of this class are not thread-safe.</p>
+ */
+public final class PathVisitor implements StreamingTagVisitor {
+
+    private static final byte NO_FILTER = 0;
+    private static final byte FILTER_PENDING = 1;
+    private static final byte FILTER_PASSED = 2;
+    private static final byte FILTER_FAILED = 3;
+
+    private final PathStep[] steps;
+    private final boolean single;
+    private final List<Tag> results = new ArrayList<>();
+    private final List<Tag> resultsView = Collections.unmodifiableList(results);
+
+    // The containers on the path that we are currently inside, where the children of the container at depth N match step N.
+    private int depth;
+    private final int[] targets;
+    private final byte[] filterStates;
+    private final int[] marks;
+    private final boolean[] finished;
+    private boolean pendingResult;
+    private boolean pendingFilter;
+
+    // The selected container we are currently building, if any.
+    private final CollectingTagVisitor collector = new CollectingTagVisitor();
+    private boolean capturing;
+    private @Nullable PathFilter captureFilter;
+
+    PathVisitor(final PathStep[] steps) {
+        this.steps = steps;
+        this.single = Arrays.stream(steps).allMatch(step -> step instanceof PathStep.Name || step instanceof PathStep.Index);
+        targets = new int[steps.length];
+        filterStates = new byte[steps.length];
+        marks = new int[steps.length];
+        finished = new boolean[steps.length];
+    }
+
+    /**
+     * Gets the values that have been selected so far.
+     *
+     * <p>The returned list is an unmodifiable view, which is cleared when
+     * this visitor is {@link #reset() reset}.</p>
+     *
+     * @return the selected values
+     */
+    public @NotNull List<@NotNull Tag> results() {
+        return resultsView;
+    }
+
+    /**
+     * Resets this visitor, clearing all the selected values, so it can be
+     * used to visit more data.
+     */
+    public void reset() {
+        results.clear();
+        depth = 0;
+        pendingResult = false;
+        pendingFilter = false;
+        capturing = false;
+        captureFilter = null;
+    }
+
+    private boolean isLast(final int step) {
+        return step == steps.length - 1;
+    }
+
+    // Whether the child of a container at the given depth with the given type can lie on the path.
+    private boolean accepts(final int step, final TagType<?> type) {
+        if (isLast(step)) return true;
+        return type == (steps[step + 1].selectsEntries() ? CompoundTag.TYPE : ListTag.TYPE);
+    }
+
+    private void push(final byte filterState) {
+        targets[depth] = -1;
+        filterStates[depth] = filterState;
+        marks[depth] = results.size();
+        finished[depth] = false;
+        depth++;
+    }
+
+    private EntryResult enter(final int step, final TagType<?> type) {
+        if (isLast(step)) {
+            select(type, null);
+        } else {
+            push(NO_FILTER);
+        }
+        return EntryResult.ENTER;
+    }
+
+    private void select(final TagType<?> type, final @Nullable PathFilter filter) {
+        if (type == CompoundTag.TYPE || type == ListTag.TYPE) {
+            // Selected containers are built by the collector, which sees them as the root of their own tree.
+            capturing = true;
+            captureFilter = filter;
+            collector.visitRootEntry(type);
+        } else {
+            pendingResult = true;
+        }
+    }
+
+    private void resolveFilter(final int frame, final boolean passed) {
+        pendingFilter = false;
+        filterStates[frame] = passed ? FILTER_PASSED : FILTER_FAILED;
+        if (!passed) truncate(marks[frame]);
+    }
+
+    private void truncate(final int size) {
+        results.subList(size, results.size()).clear();
+    }
+
+    private ValueResult addResult(final Tag tag) {
+        pendingResult = false;
+        if (depth > 0 && filterStates[depth - 1] == FILTER_FAILED) return ValueResult.CONTINUE;
+        results.add(tag);
+        return single ? ValueResult.HALT : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visitEnd() {
+        pendingResult = false;
+        pendingFilter = false;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final @NotNull String value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(StringTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final byte value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(ByteTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final short value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(ShortTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final int value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(IntTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final long value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(LongTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final float value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(FloatTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final double value) {
+        if (capturing) return collector.visit(value);
+        if (pendingFilter) resolveFilter(depth - 1, filter().matches(value));
+        return pendingResult ? addResult(DoubleTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final byte@NotNull[] value) {
+        if (capturing) return collector.visit(value);
+        return pendingResult ? addResult(ByteArrayTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final int@NotNull[] value) {
+        if (capturing) return collector.visit(value);
+        return pendingResult ? addResult(IntArrayTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visit(final long@NotNull[] value) {
+        if (capturing) return collector.visit(value);
+        return pendingResult ? addResult(LongArrayTag.of(value)) : ValueResult.CONTINUE;
+    }
+
+    private PathFilter filter() {
+        return (PathFilter) steps[depth - 2];
+    }
+
+    @Override
+    public @NotNull ValueResult visitList(final @NotNull TagType<?> type, final int size) {
+        if (capturing) return collector.visitList(type, size);
+        final int frame = depth - 1;
+        final PathStep step = steps[frame];
+        if (step instanceof final PathStep.Index index) {
+            final int target = index.resolve(size);
+            if (target < 0 || target >= size) return ValueResult.BREAK;
+            targets[frame] = target;
+        }
+        if (step instanceof PathFilter ? type != CompoundTag.TYPE : !accepts(frame, type)) return ValueResult.BREAK;
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull EntryResult visitElement(final @NotNull TagType<?> type, final int index) {
+        if (capturing) return collector.visitElement(type, index);
+        final int frame = depth - 1;
+        final PathStep step = steps[frame];
+        if (step instanceof PathFilter filter) {
+            if (isLast(frame)) {
+                select(type, filter);
+            } else {
+                push(FILTER_PENDING);
+            }
+            return EntryResult.ENTER;
+        }
+        if (step instanceof PathStep.Index) {
+            if (index < targets[frame]) return EntryResult.SKIP;
+            if (index > targets[frame]) return EntryResult.BREAK;
+        }
+        return enter(frame, type);
+    }
+
+    @Override
+    public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type) {
+        if (capturing) return collector.visitEntry(type);
+        final int frame = depth - 1;
+        final byte filterState = filterStates[frame];
+        if (filterState == FILTER_FAILED) return EntryResult.BREAK;
+        // We need the name of anything that could be the filtered entry, whatever its type, as even entries that aren't values can
+        // match, such as with !=.
+        if (filterState == FILTER_PENDING) return EntryResult.ENTER;
+        if (finished[frame]) return EntryResult.BREAK;
+        return accepts(frame, type) ? EntryResult.ENTER : EntryResult.SKIP;
+    }
+
+    @Override
+    public @NotNull EntryResult visitEntry(final @NotNull TagType<?> type, final @NotNull String name) {
+        if (capturing) return collector.visitEntry(type, name);
+        final int frame = depth - 1;
+        if (filterStates[frame] == FILTER_PENDING && name.equals(filter().key())) {
+            if (filter().exists()) {
+                resolveFilter(frame, true);
+            } else if (type.isValue()) {
+                pendingFilter = true;
+            } else {
+                resolveFilter(frame, filter().matchesOther());
+                if (filterStates[frame] == FILTER_FAILED) return EntryResult.BREAK;
+            }
+        }
+        final PathStep step = steps[frame];
+        final boolean matches = step instanceof final PathStep.Name named ? name.equals(named.name()) : step instanceof PathStep.AnyName;
+        if (matches && !finished[frame] && accepts(frame, type)) {
+            if (step instanceof PathStep.Name) finished[frame] = true;
+            return enter(frame, type);
+        }
+        return pendingFilter ? EntryResult.ENTER : EntryResult.SKIP;
+    }
+
+    @Override
+    public @NotNull ValueResult visitRootEntry(final @NotNull TagType<?> type) {
+        depth = 0;
+        pendingResult = false;
+        pendingFilter = false;
+        if (type != (steps[0].selectsEntries() ? CompoundTag.TYPE : ListTag.TYPE)) return ValueResult.BREAK;
+        push(NO_FILTER);
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public @NotNull ValueResult visitContainerEnd() {
+        if (capturing) {
+            final ValueResult result = collector.visitContainerEnd();
+            final Tag tag = collector.result();
+            // The collector only has a result once the selected container itself has ended.
+            if (result != ValueResult.CONTINUE || tag == null) return result;
+            capturing = false;
+            final PathFilter filter = captureFilter;
+            captureFilter = null;
+            if (filter != null && !filter.test(tag)) return ValueResult.CONTINUE;
+            return addResult(tag);
+        }
+        if (depth == 0) return ValueResult.CONTINUE;
+        final int frame = --depth;
+        // Filtered compounds that never had the filtered entry don't match.
+        if (filterStates[frame] == FILTER_PENDING) resolveFilter(frame, false);
+        return ValueResult.CONTINUE;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.path;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.EndTag;
+import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.util.Types;
+
+/**
+ * A compiled path expression, which selects values from a tag tree, either
+ * in memory or whilst streaming serialized data.
+ *
+ * <p>Paths are made of steps, which each select from the values selected by
+ * the step before, starting from the root tag:</p>
+ * <ul>
+ *     <li>{@code name} selects the entry of a compound with that name. Names
+ *     containing special characters can be quoted, like {@code "a.b"}.</li>
+ *     <li>{@code *} selects every entry of a compound.</li>
+ *     <li>{@code [2]} selects the element of a list at that index, where
+ *     negative indexes count from the end of the list.</li>
+ *     <li>{@code [*]} selects every element of a list.</li>
+ *     <li>{@code [?key]} selects every compound element of a list that has
+ *     an entry with that name, and {@code [?key == value]} selects those
+ *     where the entry compares to the given string or number. The
+ *     operators {@code ==}, {@code !=}, {@code <}, {@code <=}, {@code >} and
+ *     {@code >=} are supported.</li>
+ * </ul>
+ *
+ * <p>Name steps are separated by dots, and list steps follow directly, so
+ * {@code sections[*].Y} selects the Y entry of every section of a chunk, and
+ * {@code Level.Entities[?id == 'minecraft:zombie'].Pos} selects the positions
+ * of all the zombies in an old chunk.</p>
+ *
+ * <p>Paths are immutable, and are meant to be compiled once and reused.
+ * Instances of this class are thread-safe.</p>
+ */
+public final class TagPath {
+
+    private final String expression;
+    private final PathStep[] steps;
+
+    private TagPath(final String expression, final PathStep[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Compiles the given path expression.
+     *
+     * @param expression the expression
+     * @return the compiled path
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static @NotNull TagPath compile(final @NotNull String expression) {
+        return new TagPath(expression, PathParser.parse(expression));
+    }
+
+    /**
+     * Selects all the values this path matches in the given tag tree.
+     *
+     * @param root the root tag
+     * @return the selected values, in the order they appear in the tree
+     */
+    public @NotNull List<@NotNull Tag> select(final @NotNull Tag root) {
+        List<Tag> current = List.of(root);
+        for (final PathStep step : steps) {
+            final List<Tag> next = new ArrayList<>();
+            for (final Tag tag : current) {
+                step.select(tag, next);
+            }
+            if (next.isEmpty()) return List.of();
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Reads a named root tag from the given input, selecting all the values
+     * this path matches, and skipping everything else.
+     *
+     * <p>If this path has no wildcards or filters, reading stops as soon as
+     * the value is found, so the input may be left part of the way through
+     * the tag.</p>
+     *
+     * @param input the input to read from
+     * @return the selected values, in the order they appear in the data
+     * @throws IOException if an I/O error occurs
+     * @see #visitor()
+     */
+    public @NotNull List<@NotNull Tag> select(final @NotNull DataInput input) throws IOException {
+        final int type = input.readByte();
+        if (type == EndTag.ID) return List.of();
+        input.skipBytes(input.readUnsignedShort());
+        final PathVisitor visitor = visitor();
+        Types.of(type).parseRoot(input, visitor);
+        return visitor.results();
+    }
+
+    /**
+     * Creates a new visitor that collects the values this path matches when
+     * visiting serialized data.
+     *
+     * <p>The visitor must be used to visit data from the root, such as with
+     * {@link org.kryptonmc.nbt.TagType#parseRoot(DataInput,
+     * org.kryptonmc.nbt.visitor.StreamingTagVisitor)} or
+     * {@link org.kryptonmc.nbt.io.TagIO#parse(java.io.InputStream,
+     * org.kryptonmc.nbt.io.TagCompression,
+     * org.kryptonmc.nbt.visitor.StreamingTagVisitor)}.</p>
+     *
+     * @return a new visitor
+     */
+    public @NotNull PathVisitor visitor() {
+        return new PathVisitor(steps);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || obj instanceof final TagPath other && expression.equals(other.expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.BufferedTagOutput;
+
+/**
+ * A codec for the modified UTF-8 encoding that NBT uses for all strings,
+ * which is the same encoding used by {@link DataInput#readUTF()} and
+ * {@link DataOutput#writeUTF(String)}.
+ *
+ * <p>Almost all strings in NBT data, and especially compound keys, are short
+ * and entirely ASCII, so this is optimized for that case. ASCII data is
+ * detected eight bytes at a time and decoded straight in to a compact Latin-1
+ * string, without going through a char array.</p>
+ *
+ * <p>As with the JDK's implementation, characters outside the basic
+ * multilingual plane are encoded as two separately encoded surrogates, and
+ * the null character is encoded as two bytes, so the encoded form never
+ * contains a zero byte.</p>
+ */
+public final class ModifiedUtf8 {
+
+    /**
+     * The maximum length of an encoded string, in bytes.
+     */
+    public static final int MAX_LENGTH = 65535;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+    /**
+     * Calculates the length of the given value when encoded, not including
+     * the two bytes that precede it with its length.
+     *
+     * @param value the value
+     * @return the encoded length
+     */
+    public static int encodedLength(final @NotNull String value) {
+        final int length = value.length();
+        int result = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80 || c == 0) result += c >= 0x800 ? 2 : 1;
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the given value in to the given array, starting at the given
+     * offset, without the two bytes that precede it with its length.
+     *
+     * <p>The array must have at least {@link #encodedLength(String)} bytes
+     * remaining after the offset.</p>
+     *
+     * @param value the value to encode
+     * @param destination the array to encode in to
+     * @param offset the offset to start writing at
+     * @return the amount of bytes written
+     */
+    public static int encode(final @NotNull String value, final byte@NotNull[] destination, final int offset) {
+        final int length = value.length();
+        int position = offset;
+        int i = 0;
+        // Fast path for the common ASCII prefix, which is usually the whole string.
+        for (; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80 || c == 0) break;
+            destination[position++] = (byte) c;
+        }
+        for (; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80 && c != 0) {
+                destination[position++] = (byte) c;
+            } else if (c < 0x800) {
+                destination[position++] = (byte) (0xC0 | c >> 6 & 0x1F);
+                destination[position++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                destination[position++] = (byte) (0xE0 | c >> 12 & 0x0F);
+                destination[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                destination[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return position - offset;
+    }
+
+    /**
+     * Decodes a string from the given range of the given array, which must
+     * not include the two bytes that precede it with its length.
+     *
+     * @param source the array to decode from
+     * @param offset the offset to start reading at
+     * @param length the length of the encoded string
+     * @return the decoded string
+     * @throws UTFDataFormatException if the data is not valid modified UTF-8
+     */
+    public static @NotNull String decode(final byte@NotNull[] source, final int offset, final int length) throws UTFDataFormatException {
+        final int end = offset + length;
+        int position = offset;
+        while (position + Long.BYTES <= end && ((long) LONG_VIEW.get(source, position) & HIGH_BITS) == 0) {
+            position += Long.BYTES;
+        }
+        while (position < end && source[position] >= 0) {
+            position++;
+        }
+        // ASCII is a subset of Latin-1, which lets the JDK copy the bytes straight in to a compact string.
+        if (position == end) return new String(source, offset, length, StandardCharsets.ISO_8859_1);
+        final char[] chars = new char[length];
+        return new String(chars, 0, decode(source, offset, length, chars));
+    }
+
+    /**
+     * Decodes a string from the given range of the given array in to the
+     * given array of characters, which must not include the two bytes that
+     * precede it with its length.
+     *
+     * <p>A string never decodes to more characters than it has bytes, so
+     * the destination needs at most as many characters as the given
+     * length.</p>
+     *
+     * @param source the array to decode from
+     * @param offset the offset to start reading at
+     * @param length the length of the encoded string
+     * @param destination the array to decode in to, starting at index 0
+     * @return the amount of characters decoded
+     * @throws UTFDataFormatException if the data is not valid modified UTF-8
+     */
+    public static int decode(final byte@NotNull[] source, final int offset, final int length,
+                             final char@NotNull[] destination) throws UTFDataFormatException {
+        final int end = offset + length;
+        int count = 0;
+        int position = offset;
+        while (position < end) {
+            final int first = source[position] & 0xFF;
+            switch (first >> 4) {
+                case 0, 1, 2, 3, 4, 5, 6, 7 -> {
+                    position++;
+                    destination[count++] = (char) first;
+                }
+                case 12, 13 -> {
+                    if (position + 2 > end) throw malformed("partial character at end", position);
+                    final int second = source[position + 1];
+                    if ((second & 0xC0) != 0x80) throw malformed("malformed input around byte", position + 1);
+                    destination[count++] = (char) ((first & 0x1F) << 6 | second & 0x3F);
+                    position += 2;
+                }
+                case 14 -> {
+                    if (position + 3 > end) throw malformed("partial character at end", position);
+                    final int second = source[position + 1];
+                    final int third = source[position + 2];
+                    if ((second & 0xC0) != 0x80 || (third & 0xC0) != 0x80) throw malformed("malformed input around byte", position + 1);
+                    destination[count++] = (char) ((first & 0x0F) << 12 | (second & 0x3F) << 6 | third & 0x3F);
+                    position += 3;
+                }
+                default -> throw malformed("malformed input around byte", position);
+            }
+        }
+        return count;
+    }
+
+    private static UTFDataFormatException malformed(final String message, final int position) {
+        return new UTFDataFormatException(message + ' ' + position);
+    }
+
+    /**
+     * Reads a string, preceded by its length, from the given input.
+     *
+     * <p>This is equivalent to {@link DataInput#readUTF()}, but avoids the
+     * JDK's per-character decoding for inputs other than
+     * {@link BufferedTagInput}, which already uses this codec.</p>
+     *
+     * @param input the input to read from
+     * @return the string
+     * @throws IOException if an I/O error occurs, or the data is not valid
+     * modified UTF-8
+     */
+    public static @NotNull String read(final @NotNull DataInput input) throws IOException {
+        if (input instanceof BufferedTagInput) return input.readUTF();
+        final int length = input.readUnsignedShort();
+        final byte[] bytes = scratch(length);
+        input.readFully(bytes, 0, length);
+        return decode(bytes, 0, length);
+    }
+
+    /**
+     * Writes the given string, preceded by its length, to the given output.
+     *
+     * <p>This is equivalent to {@link DataOutput#writeUTF(String)}, but
+     * writes the whole encoded string at once for outputs other than
+     * {@link BufferedTagOutput}, which already uses this codec.</p>
+     *
+     * @param output the output to write to
+     * @param value the string to write
+     * @throws IOException if an I/O error occurs, or the encoded string is
+     * longer than {@link #MAX_LENGTH}
+     */
+    public static void write(final @NotNull DataOutput output, final @NotNull String value) throws IOException {
+        if (output instanceof BufferedTagOutput) {
+            output.writeUTF(value);
+            return;
+        }
+        final int length = checkedLength(value);
+        final byte[] bytes = scratch(length + Short.BYTES);
+        bytes[0] = (byte) (length >>> 8);
+        bytes[1] = (byte) length;
+        encode(value, bytes, Short.BYTES);
+        output.write(bytes, 0, length + Short.BYTES);
+    }
+
+    /**
+     * Calculates the encoded length of the given value, and checks that it
+     * is not too long to be written.
+     *
+     * @param value the value
+     * @return the encoded length
+     * @throws UTFDataFormatException if the encoded value is longer than
+     * {@link #MAX_LENGTH}
+     */
+    public static int checkedLength(final @NotNull String value) throws UTFDataFormatException {
+        // Every character takes at least one byte, so there's no point counting if there are too many characters.
+        if (value.length() > MAX_LENGTH) throw new UTFDataFormatException("Encoded string is too long: more than " + MAX_LENGTH + " bytes!");
+        final int length = encodedLength(value);
+        if (length > MAX_LENGTH) throw new UTFDataFormatException("Encoded string is too long: " + length + " bytes!");
+        return length;
+    }
+
+    private static byte[] scratch(final int length) {
+        byte[] bytes = SCRATCH.get();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            SCRATCH.set(bytes);
+        }
+        return bytes;
+    }
+
+    private ModifiedUtf8() {
+        throw new AssertionError("This class cannot be instantiated!");
+    }
+}
@@ -58,6 +58,21 @@ public final class Types {
         return type >= 0 && type < TYPES.length ? TYPES[type] : TagType.createInvalid(type);
     }
 
+    /**
+     * Gets the integer type ID for the given {@link TagType}.
+     *
+     * @param type the tag type
+     * @return the corresponding type ID
+     * @throws IllegalArgumentException if the given tag type is not one of
+     * the standard tag types
+     */
+    public static int id(final @NotNull TagType<?> type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i] == type) return i;
+        }
+        throw new IllegalArgumentException("Unknown tag type " + type.name() + '!');
+    }
+
     private Types() {
         throw new AssertionError("This class cannot be instantiated!");
     }
@@ -8,10 +8,19 @@
  */
 package org.kryptonmc.nbt;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 final class ArrayTagTests {
 
@@ -36,4 +45,62 @@ final class ArrayTagTests {
         assertArrayEquals(longArrayOne.getData(), longArrayOne.copy().getData());
         assertEquals(longArrayOne.size(), longArrayOne.getData().length);
     }
+
+    @Test
+    void testGrowAndShrink() {
+        final var tag = IntArrayTag.of(new int[0]);
+        for (int i = 0; i < 100; i++) {
+            tag.add(i);
+        }
+        tag.add(0, -1);
+        tag.insert(1, new int[]{7, 8, 9}, 1, 2);
+        tag.addAll(new int[]{100, 101});
+        assertEquals(105, tag.size());
+        assertArrayEquals(new int[]{-1, 8, 9, 0, 1}, Arrays.copyOf(tag.getData(), 5));
+        assertEquals(tag.size(), tag.getData().length);
+        assertSame(tag.getData(), tag.getData());
+
+        tag.removeRange(1, 103);
+        assertArrayEquals(new int[]{-1, 100, 101}, tag.getData());
+        assertEquals(IntArrayTag.of(new int[]{-1, 100, 101}), tag);
+        tag.remove(0);
+        tag.ensureCapacity(64);
+        assertEquals(IntArrayTag.of(new int[]{100, 101}), tag);
+        assertEquals(IntArrayTag.of(new int[]{100, 101}).hashCode(), tag.hashCode());
+        assertThrows(IndexOutOfBoundsException.class, () -> tag.get(2));
+    }
+
+    @Test
+    void testLazyArrays() throws IOException {
+        final long[] values = new long[4096];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 0x0123456789ABCDEFL;
+        }
+        final var eager = LongArrayTag.of(values);
+        final var output = new ByteArrayOutputStream();
+        eager.write(new DataOutputStream(output));
+        final byte[] encoded = output.toByteArray();
+
+        final LongArrayTag first = LongArrayTag.TYPE.load(new DataInputStream(new ByteArrayInputStream(encoded)), 0);
+        final LongArrayTag second = LongArrayTag.TYPE.load(new DataInputStream(new ByteArrayInputStream(encoded)), 0);
+        assertEquals(first, second);
+        assertEquals(eager.size(), first.size());
+        assertEquals(eager.sizeInBytes(), first.sizeInBytes());
+        final var rewritten = new ByteArrayOutputStream();
+        first.write(new DataOutputStream(rewritten));
+        assertArrayEquals(encoded, rewritten.toByteArray());
+
+        assertEquals(eager, first);
+        assertEquals(second, eager);
+        assertEquals(eager.hashCode(), second.hashCode());
+        assertEquals(values[4095], first.get(4095).value());
+        assertArrayEquals(values, second.copy().getData());
+
+        second.set(0, 1L);
+        assertNotEquals(eager, second);
+        rewritten.reset();
+        second.write(new DataOutputStream(rewritten));
+        assertEquals(encoded.length, rewritten.size());
+        assertEquals(1L, LongArrayTag.TYPE.load(new DataInputStream(new ByteArrayInputStream(rewritten.toByteArray())), 0).get(0).value());
+    }
 }
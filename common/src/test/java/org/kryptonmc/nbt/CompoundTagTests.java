@@ -0,0 +1,54 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class CompoundTagTests {
+
+    @Test
+    void testImmutablePutAndRemove() {
+        final var expected = new LinkedHashMap<String, Tag>();
+        ImmutableCompoundTag tag = CompoundTag.EMPTY;
+        // Enough entries to grow past the flat representation and shrink back again.
+        for (int i = 0; i < ArrayPMap.MAX_SIZE * 2; i++) {
+            final ImmutableCompoundTag previous = tag;
+            tag = tag.putInt("key" + i, i);
+            expected.put("key" + i, IntTag.of(i));
+            assertEquals(i, previous.size());
+            assertEquals(expected, tag.getData());
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(tag.keySet()));
+        }
+        tag = tag.putInt("key0", -1);
+        assertEquals(-1, tag.getInt("key0"));
+        for (int i = 0; i < ArrayPMap.MAX_SIZE * 2; i++) {
+            tag = tag.remove("key" + i);
+            expected.remove("key" + i);
+            assertNull(tag.get("key" + i));
+            assertEquals(expected.size(), tag.size());
+        }
+        assertSame(CompoundTag.EMPTY, tag);
+    }
+
+    @Test
+    void testFlatEquality() {
+        final var flat = ImmutableCompoundTag.builder().putString("id", "minecraft:stone").putByte("Count", (byte) 1).build();
+        final var mutable = MutableCompoundTag.builder().putByte("Count", (byte) 1).putString("id", "minecraft:stone").build();
+        assertEquals(flat, mutable);
+        assertEquals(mutable, flat);
+        assertEquals(mutable.hashCode(), flat.hashCode());
+        assertEquals(flat, flat.remove("missing"));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagContainer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+final class ContainerTests {
+
+    private static final CompoundTag FIRST = ImmutableCompoundTag.builder().putString("name", "first").putInts("values", 1, 2, 3).build();
+    private static final CompoundTag SECOND = ImmutableCompoundTag.builder().putString("name", "second").putLong("time", 1234L).build();
+    private static final CompoundTag THIRD = ImmutableCompoundTag.builder().putString("name", "third").build();
+
+    @Test
+    void testWriteAndRead(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.NONE);
+            writer.write("second", SECOND, TagCompression.POOLED_GZIP);
+            writer.write("third", THIRD, TagCompression.ZLIB);
+        }
+        try (final TagContainer container = TagContainer.open(path)) {
+            assertEquals(Set.of("first", "second", "third"), container.names());
+            assertEquals(FIRST, container.read("first"));
+            assertEquals(SECOND, container.read("second"));
+            assertEquals(THIRD, container.readLazy("third"));
+            assertEquals(FIRST, container.readLazy("first"));
+            assertNull(container.read("missing"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> {
+            try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+                writer.write("unregistered", FIRST, new TagCompression(input -> input, output -> output));
+            }
+        });
+    }
+
+    @Test
+    void testAppendAndCompact(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.GZIP);
+            writer.write("second", SECOND, TagCompression.GZIP);
+        }
+        try (final TagContainer before = TagContainer.open(path)) {
+            try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+                writer.write("first", THIRD, TagCompression.NONE);
+                assertTrue(writer.remove("second"));
+                assertFalse(writer.remove("missing"));
+            }
+            // Containers that were already open keep seeing the data they were opened with.
+            assertEquals(FIRST, before.read("first"));
+            assertEquals(SECOND, before.read("second"));
+
+            final long size = Files.size(path);
+            TagContainer.compact(path);
+            assertTrue(Files.size(path) < size);
+            assertEquals(FIRST, before.read("first"));
+        }
+        try (final TagContainer container = TagContainer.open(path)) {
+            assertEquals(1, container.size());
+            assertEquals(THIRD, container.read("first"));
+            assertFalse(container.contains("second"));
+        }
+    }
+
+    @Test
+    void testWritersAndCompactionWaitForEachOther(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.GZIP);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> compaction;
+            final Future<?> write;
+            try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+                compaction = executor.submit(() -> {
+                    TagContainer.compact(path);
+                    return null;
+                });
+                write = executor.submit(() -> {
+                    try (final TagContainer.Writer other = TagContainer.writer(path)) {
+                        other.write("third", THIRD, TagCompression.NONE);
+                    }
+                    return null;
+                });
+                Thread.sleep(100);
+                assertFalse(compaction.isDone());
+                assertFalse(write.isDone());
+                writer.write("second", SECOND, TagCompression.GZIP);
+            }
+            // Whichever of these runs first, neither may lose what the other, or the writer above, committed.
+            compaction.get();
+            write.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        try (final TagContainer container = TagContainer.open(path)) {
+            assertEquals(Set.of("first", "second", "third"), container.names());
+            assertEquals(SECOND, container.read("second"));
+            assertEquals(THIRD, container.read("third"));
+        }
+    }
+
+    @Test
+    void testOpenWhileCompacting(final @TempDir Path directory) throws Exception {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.GZIP);
+        }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> compaction = executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    TagContainer.compact(path);
+                }
+                return null;
+            });
+            // Every open must see either the old file or the new one, never a retired header.
+            while (!compaction.isDone()) {
+                try (final TagContainer container = TagContainer.open(path)) {
+                    assertEquals(FIRST, container.read("first"));
+                }
+            }
+            compaction.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCompactKeepsPermissions(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.GZIP);
+        }
+        assumeTrue(Files.getFileAttributeView(path, PosixFileAttributeView.class) != null);
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(path, permissions);
+        TagContainer.compact(path);
+        assertEquals(permissions, Files.getPosixFilePermissions(path));
+    }
+
+    @Test
+    void testUncommittedDataIsIgnored(final @TempDir Path directory) throws IOException {
+        final Path path = directory.resolve("data.nbtc");
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            writer.write("first", FIRST, TagCompression.GZIP);
+        }
+        final long size = Files.size(path);
+        // This is what a writer that crashed after appending, but before it was closed, leaves behind.
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17}, StandardOpenOption.APPEND);
+        try (final TagContainer container = TagContainer.open(path)) {
+            assertEquals(Set.of("first"), container.names());
+            assertEquals(FIRST, container.read("first"));
+        }
+        try (final TagContainer.Writer writer = TagContainer.writer(path)) {
+            assertEquals(size, Files.size(path));
+            writer.write("second", SECOND, TagCompression.NONE);
+        }
+        try (final TagContainer container = TagContainer.open(path)) {
+            assertEquals(FIRST, container.read("first"));
+            assertEquals(SECOND, container.read("second"));
+        }
+
+        // A new container that was never closed has nothing committed, so it can't be read, but can still be written to.
+        final Path fresh = directory.resolve("fresh.nbtc");
+        final byte[] uncommitted = Files.readAllBytes(path);
+        // The committed length follows the magic and version, and is the size of the header when nothing has been committed.
+        ByteBuffer.wrap(uncommitted).putLong(8, 16);
+        Files.write(fresh, uncommitted);
+        assertThrows(IOException.class, () -> TagContainer.open(fresh));
+        try (final TagContainer.Writer writer = TagContainer.writer(fresh)) {
+            writer.write("third", THIRD, TagCompression.NONE);
+        }
+        try (final TagContainer container = TagContainer.open(fresh)) {
+            assertEquals(Set.of("third"), container.names());
+            assertEquals(THIRD, container.read("third"));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.pcollections.TreePVector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+final class ListTagTests {
+
+    @Test
+    void testPrimitiveRoundTrip() throws IOException {
+        final var tag = ImmutableListTag.builder(DoubleTag.ID).addDouble(1.5).addDouble(-2.0).addDouble(Double.NaN).build();
+        assertInstanceOf(DoubleListData.class, tag.getData());
+
+        final var output = new ByteArrayOutputStream();
+        tag.write(new DataOutputStream(output));
+        final ListTag read = ListTag.TYPE.load(new DataInputStream(new ByteArrayInputStream(output.toByteArray())), 0);
+        assertInstanceOf(DoubleListData.class, read.getData());
+        assertEquals(tag, read);
+        assertEquals(-2.0, read.getDouble(1));
+        assertEquals(0.0, read.getDouble(3));
+
+        final List<Double> values = new ArrayList<>();
+        read.forEachDouble(values::add);
+        assertEquals(List.of(1.5, -2.0, Double.NaN), values);
+
+        final var boxed = new ImmutableListTagImpl(TreePVector.from(new ArrayList<>(tag.getData())), DoubleTag.ID);
+        assertEquals(boxed, read);
+        assertEquals(read, boxed);
+        assertEquals(boxed.hashCode(), read.hashCode());
+        assertEquals(boxed.sizeInBytes(), read.sizeInBytes());
+    }
+
+    @Test
+    void testPrimitiveModification() {
+        ImmutableListTag tag = (ImmutableListTag) ImmutableListTag.builder(IntTag.ID).addInt(1).addInt(2).addInt(3).build();
+        tag = tag.add(IntTag.of(4)).remove(0).set(0, IntTag.of(5)).remove(IntTag.of(3));
+        assertInstanceOf(IntListData.class, tag.getData());
+        assertArrayEquals(new Tag[] {IntTag.of(5), IntTag.of(4)}, tag.getData().toArray());
+
+        tag = tag.addAll(List.of(IntTag.of(6), IntTag.of(7))).removeAll(List.of(IntTag.of(4), IntTag.of(6)));
+        assertEquals(List.of(IntTag.of(5), IntTag.of(7)), tag.getData());
+        assertEquals(List.of(IntTag.of(7)), tag.getData().subList(1, 2));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+import org.kryptonmc.nbt.path.TagPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class PathTests {
+
+    private static final CompoundTag LEVEL = ImmutableCompoundTag.builder()
+            .putCompound("Level", level -> level
+                    .putInt("DataVersion", 3120)
+                    .put("Entities", ImmutableListTag.builder(CompoundTag.ID)
+                            .add(entity("minecraft:zombie", 1.0, 20.0F))
+                            .add(entity("minecraft:cow", 2.0, 10.0F))
+                            .add(entity("minecraft:zombie", 3.0, 5.5F))
+                            .add(ImmutableCompoundTag.builder().putString("id", "minecraft:bat").build())
+                            .build())
+                    .put("Sections", ImmutableListTag.builder(CompoundTag.ID)
+                            .add(ImmutableCompoundTag.builder().putByte("Y", (byte) -1).putLongs("data", 1L, 2L).build())
+                            .add(ImmutableCompoundTag.builder().putByte("Y", (byte) 0).putLongs("data", 3L).build())
+                            .add(ImmutableCompoundTag.builder().putByte("Y", (byte) 1).build())
+                            .build())
+                    .put("Empty", ImmutableListTag.builder(IntTag.ID).build()))
+            .putString("Status", "minecraft:full")
+            .build();
+
+    private static CompoundTag entity(final String id, final double x, final float health) {
+        // The ID comes last, so streaming filters have to discard values they selected before finding it.
+        return ImmutableCompoundTag.builder()
+                .putInts("UUID", 1, 2, 3, (int) x)
+                .putCompound("Brain", brain -> brain.putString("memory", "none"))
+                .putList("Pos", DoubleTag.ID, DoubleTag.of(x), DoubleTag.of(64.0), DoubleTag.of(-x))
+                .putFloat("Health", health)
+                .putString("id", id)
+                .build();
+    }
+
+    @Test
+    void testSelect() throws IOException {
+        assertEquals(List.of(IntTag.of(3120)), select("Level.DataVersion"));
+        assertEquals(List.of(ByteTag.of((byte) -1), ByteTag.of((byte) 0), ByteTag.of((byte) 1)), select("Level.Sections[*].Y"));
+        assertEquals(List.of(ByteTag.of((byte) 1)), select("Level.Sections[-1].Y"));
+        assertEquals(List.of(LongArrayTag.of(new long[] {3L})), select("Level.Sections[1].data"));
+        assertEquals(List.of(), select("Level.Sections[3].Y"));
+        assertEquals(List.of(DoubleTag.of(1.0), DoubleTag.of(3.0)), select("Level.Entities[?id=='minecraft:zombie'].Pos[0]"));
+        assertEquals(List.of(StringTag.of("minecraft:cow"), StringTag.of("minecraft:bat")), select("Level.Entities[?id != \"minecraft:zombie\"].id"));
+        assertEquals(3, select("Level.Entities[?Health != 1].id").size());
+        assertEquals(List.of(FloatTag.of(20.0F), FloatTag.of(10.0F)), select("Level.Entities[?Health >= 10].Health"));
+        assertEquals(List.of(StringTag.of("minecraft:zombie")), select("Level.Entities[?Health < 6.0f].id"));
+        assertEquals(List.of(LEVEL.getCompound("Level").getList("Sections", CompoundTag.ID).get(1)), select("Level.Sections[?Y == 0]"));
+        assertEquals(List.of(LEVEL.getCompound("Level").getList("Entities", CompoundTag.ID).get(3)), select("Level.Entities[-1]"));
+        assertEquals(List.of(LEVEL.getCompound("Level").get("Empty")), select("Level.Empty"));
+        assertEquals(List.of(IntTag.of(3120)), select("*.DataVersion"));
+        assertEquals(List.copyOf(LEVEL.values()), select("*"));
+        assertEquals(List.of(), select("Status.missing"));
+        assertEquals(List.of(), select("[0]"));
+    }
+
+    @Test
+    void testFilterOnContainers() throws IOException {
+        // Arrays, lists and compounds are never equal to a literal, so != matches every entity that has them, and == matches none.
+        assertEquals(List.of(DoubleTag.of(1.0), DoubleTag.of(2.0), DoubleTag.of(3.0)), select("Level.Entities[?UUID != 'x'].Pos[0]"));
+        assertEquals(List.of(FloatTag.of(20.0F), FloatTag.of(10.0F), FloatTag.of(5.5F)), select("Level.Entities[?Pos != 1].Health"));
+        assertEquals(3, select("Level.Entities[?Brain != 'x'].id").size());
+        assertEquals(List.of(), select("Level.Entities[?UUID == 'x'].Pos[0]"));
+        assertEquals(List.of(), select("Level.Entities[?Brain == 1].id"));
+    }
+
+    @Test
+    void testStreamingMatchesTree() throws IOException {
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, LEVEL, TagCompression.NONE);
+        final var path = TagPath.compile("Level.Entities[?id == 'minecraft:zombie']");
+        final var visitor = path.visitor();
+        for (int i = 0; i < 2; i++) {
+            visitor.reset();
+            TagIO.parse(new ByteArrayInputStream(output.toByteArray()), TagCompression.NONE, visitor);
+            assertEquals(path.select(LEVEL), visitor.results());
+            assertEquals(2, visitor.results().size());
+        }
+    }
+
+    @Test
+    void testInvalidPaths() {
+        for (final String expression : List.of("", "a..b", "a[", "a[x]", "a[?b==]", "a[?b=='c]", "a[?b=c]", "a b", "a[1]x")) {
+            assertThrows(IllegalArgumentException.class, () -> TagPath.compile(expression), expression);
+        }
+    }
+
+    // Selects from both the tree and the serialized data, and checks they agree.
+    private static List<Tag> select(final String expression) throws IOException {
+        final var path = TagPath.compile(expression);
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, LEVEL, TagCompression.NONE);
+        final var streamed = path.select(new DataInputStream(new ByteArrayInputStream(output.toByteArray())));
+        final var selected = path.select(LEVEL);
+        assertEquals(selected, streamed, expression);
+        return selected;
+    }
+}
@@ -8,17 +8,33 @@
  */
 package org.kryptonmc.nbt;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kryptonmc.nbt.io.KeyInterner;
 import org.kryptonmc.nbt.io.NamedTag;
 import org.kryptonmc.nbt.io.TagCompression;
 import org.kryptonmc.nbt.io.TagIO;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class ReadTests {
@@ -43,11 +59,237 @@ final class ReadTests {
         checkBigTest(TagIO.readNamed(getResource("bigtest_gzip.nbt"), TagCompression.GZIP));
     }
 
+    @Test
+    void bigTestPooledGzip() throws IOException {
+        checkBigTest(TagIO.readNamed(getResource("bigtest_gzip.nbt"), TagCompression.POOLED_GZIP));
+    }
+
+    @Test
+    void bigTestByteArray() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        checkBigTest(TagIO.readNamed(data, TagCompression.NONE));
+    }
+
+    @Test
+    void bigTestMapped(final @TempDir Path directory) throws IOException {
+        final var file = directory.resolve("bigtest.nbt");
+        try (final InputStream input = getResource("bigtest.nbt")) {
+            Files.copy(input, file);
+        }
+        checkBigTest(TagIO.readNamedMapped(file));
+    }
+
+    @Test
+    void bigTestMutable() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        final var tag = TagIO.readMutable(data, TagCompression.NONE);
+        assertEquals(TagIO.read(data, TagCompression.NONE), tag);
+        assertInstanceOf(MutableCompoundTag.class, tag.getCompound("nested compound test").getCompound("egg"));
+        assertInstanceOf(MutableListTag.class, tag.getList("listTest (compound)", CompoundTag.ID));
+        assertInstanceOf(MutableCompoundTag.class, tag.getList("listTest (compound)", CompoundTag.ID).getCompound(0));
+    }
+
+    @Test
+    void bigTestProjected() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        final var full = TagIO.read(data, TagCompression.NONE);
+        final var projection = TagProjection.builder()
+                .include("shortTest")
+                .include("nested compound test", nested -> nested.include("egg", egg -> egg.include("name")))
+                .include("listTest (compound)", TagProjection.including("created-on"))
+                .include("listTest (long)", TagProjection.including("ignored"))
+                .build();
+        final var projected = TagIO.read(data, TagCompression.NONE, projection);
+        assertEquals(ImmutableCompoundTag.builder()
+                .put("shortTest", full.get("shortTest"))
+                .putCompound("nested compound test", nested -> nested.putCompound("egg", egg -> egg.put("name",
+                        full.getCompound("nested compound test").getCompound("egg").get("name"))))
+                .putList("listTest (compound)", CompoundTag.ID,
+                        ImmutableCompoundTag.builder().putLong("created-on", 1264099775885L).build(),
+                        ImmutableCompoundTag.builder().putLong("created-on", 1264099775885L).build())
+                .put("listTest (long)", full.get("listTest (long)"))
+                .build(), projected);
+
+        final var excluding = TagProjection.excluding("nested compound test", "listTest (compound)");
+        final var gzipped = TagIO.readNamed(getResource("bigtest_gzip.nbt"), TagCompression.GZIP, excluding);
+        assertEquals("Level", gzipped.name());
+        assertEquals(full.remove("nested compound test").remove("listTest (compound)"), gzipped.tag());
+        assertSame(TagProjection.ALL, TagProjection.excluding());
+        assertEquals(full, TagIO.read(data, TagCompression.NONE, TagProjection.ALL));
+    }
+
+    @Test
+    void bigTestCollected() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        final var full = TagIO.read(data, TagCompression.NONE);
+        final var visitor = new CollectingTagVisitor();
+        TagIO.parse(new ByteArrayInputStream(data), TagCompression.NONE, visitor);
+        assertEquals(full, visitor.result());
+        checkBigTest(new NamedTag("Level", (CompoundTag) visitor.result()));
+        // Visiting again starts a new tree.
+        TagIO.parse(getResource("bigtest_gzip.nbt"), TagCompression.GZIP, visitor);
+        assertEquals(full, visitor.result());
+
+        final var filtered = new CollectingTagVisitor((depth, name, type) -> depth > 0 || type != ListTag.TYPE,
+                (depth, name, value) -> name.equals("longTest") ? null : name.equals("intTest") ? IntTag.of(1) : value);
+        TagIO.parse(new ByteArrayInputStream(data), TagCompression.NONE, filtered);
+        final var expected = full.remove("listTest (long)").remove("listTest (compound)").remove("longTest").putInt("intTest", 1);
+        assertEquals(expected, filtered.result());
+    }
+
+    @Test
+    void keysAreInterned() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        final var first = TagIO.read(data, TagCompression.NONE);
+        final var second = TagIO.read(data, TagCompression.NONE);
+        assertEquals(first, second);
+        for (final String key : first.keySet()) {
+            if (key.length() > KeyInterner.MAX_KEY_LENGTH) continue;
+            assertSame(key, second.keySet().stream().filter(key::equals).findFirst().orElseThrow());
+        }
+    }
+
+    @Test
+    void bigTestLazy() throws IOException {
+        final byte[] data = readResource("bigtest.nbt");
+        final var eager = TagIO.read(data, TagCompression.NONE);
+        final var lazy = TagIO.readLazy(data, TagCompression.NONE);
+        assertArrayEquals(data, writeNamed("Level", lazy));
+        assertEquals(eager.sizeInBytes(), lazy.sizeInBytes());
+        checkBigTest(new NamedTag("Level", lazy));
+        assertEquals(eager, lazy);
+        assertEquals(lazy, eager);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        // Some of the entries have now been decoded, so this writes a mix of decoded and raw entries.
+        assertArrayEquals(data, writeNamed("Level", lazy));
+        assertEquals(eager.sizeInBytes(), lazy.sizeInBytes());
+
+        final var modified = lazy.putString("added", "value").remove("shortTest");
+        assertEquals(eager.putString("added", "value").remove("shortTest"), modified);
+        assertEquals(lazy, TagIO.readLazy(data, TagCompression.NONE));
+    }
+
+    @Test
+    void lazyLargeCompound() throws IOException {
+        final var builder = ImmutableCompoundTag.builder();
+        for (int i = 0; i < 40; i++) {
+            builder.putInt("int" + i, i).putString("string" + i, "value" + i);
+            builder.put("nested" + i, ImmutableCompoundTag.builder().putLongArray("longs", new long[i]).build());
+        }
+        final var tag = builder.build();
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, tag, TagCompression.GZIP);
+
+        final var lazy = TagIO.readLazy(output.toByteArray(), TagCompression.GZIP);
+        assertEquals(tag.size(), lazy.size());
+        assertEquals(39, lazy.getInt("int39"));
+        assertEquals("value20", lazy.getString("string20"));
+        assertEquals(7, lazy.getCompound("nested7").getLongArray("longs").length);
+        assertFalse(lazy.contains("missing"));
+        assertEquals(tag, lazy);
+        assertArrayEquals(writeNamed("", tag), writeNamed("", lazy));
+    }
+
+    @Test
+    void lazyConcurrentGets() throws Exception {
+        final var builder = ImmutableCompoundTag.builder();
+        for (int i = 0; i < 64; i++) {
+            builder.putString("string" + i, "value" + i).putIntArray("ints" + i, new int[] {i, i * 2});
+            builder.putCompound("nested" + i, nested -> nested.putLong("long", 7L).putList("list", StringTag.ID, StringTag.of("a")));
+        }
+        final var tag = builder.build();
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, tag, TagCompression.NONE);
+        final var lazy = TagIO.readLazy(output.toByteArray(), TagCompression.NONE);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final var start = new CountDownLatch(1);
+            final var futures = new ArrayList<Future<List<Tag>>>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final var seen = new ArrayList<Tag>();
+                    for (final String key : tag.keySet()) {
+                        seen.add(lazy.get(key));
+                    }
+                    return seen;
+                }));
+            }
+            start.countDown();
+            final var first = futures.get(0).get();
+            for (final Future<List<Tag>> future : futures) {
+                final var seen = future.get();
+                for (int i = 0; i < seen.size(); i++) {
+                    // Every thread must see the same decoded instance, not just an equal one.
+                    assertSame(first.get(i), seen.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(tag, lazy);
+    }
+
+    @Test
+    void lazyDefersValueErrors() throws IOException {
+        // A compound holding a string entry whose single byte is not valid modified UTF-8, and a valid int entry.
+        final byte[] data = {
+                CompoundTag.ID, 0, 0,
+                StringTag.ID, 0, 1, 's', 0, 1, (byte) 0xFF,
+                IntTag.ID, 0, 1, 'i', 0, 0, 0, 5,
+                EndTag.ID
+        };
+        final var lazy = TagIO.readLazy(data, TagCompression.NONE);
+        assertEquals(5, lazy.getInt("i"));
+        assertThrows(UncheckedIOException.class, () -> lazy.get("s"));
+        assertThrows(UncheckedIOException.class, lazy::hashCode);
+    }
+
+    @Test
+    void lazyDuplicateKeys() throws IOException {
+        // A compound where the key "a" appears twice, with a different type each time, around an entry for "b".
+        final byte[] data = {
+                CompoundTag.ID, 0, 0,
+                IntTag.ID, 0, 1, 'a', 0, 0, 0, 1,
+                ByteTag.ID, 0, 1, 'b', 2,
+                StringTag.ID, 0, 1, 'a', 0, 1, 'x',
+                EndTag.ID
+        };
+        final var eager = TagIO.read(data, TagCompression.NONE);
+        final var lazy = TagIO.readLazy(data, TagCompression.NONE);
+        assertEquals(2, lazy.size());
+        assertEquals(List.of("a", "b"), new ArrayList<>(lazy.keySet()));
+        assertEquals(2, lazy.entrySet().size());
+        assertEquals(eager, lazy);
+        assertEquals(lazy, eager);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        assertEquals(eager.sizeInBytes(), lazy.sizeInBytes());
+        assertArrayEquals(writeNamed("", eager), writeNamed("", lazy));
+
+        final var decoding = TagIO.readLazy(data, TagCompression.NONE);
+        assertEquals("x", decoding.getString("a"));
+        assertEquals(eager.sizeInBytes(), decoding.sizeInBytes());
+        assertArrayEquals(writeNamed("", eager), writeNamed("", decoding));
+    }
+
+    private static byte[] writeNamed(final String name, final CompoundTag tag) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        TagIO.writeNamed(output, name, tag, TagCompression.NONE);
+        return output.toByteArray();
+    }
+
     private static InputStream getResource(final String name) {
         return Objects.requireNonNull(Thread.currentThread().getContextClassLoader().getResourceAsStream(name),
                 "Could not find resource " + name + "!");
     }
 
+    private static byte[] readResource(final String name) throws IOException {
+        try (final InputStream input = getResource(name)) {
+            return input.readAllBytes();
+        }
+    }
+
     private static void checkBigTest(final NamedTag input) {
         assertEquals("Level", input.name());
         final var tag = assertInstanceOf(CompoundTag.class, input.tag());
@@ -8,14 +8,26 @@
  */
 package org.kryptonmc.nbt;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 import org.junit.jupiter.api.Test;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.BufferedTagOutput;
+import org.kryptonmc.nbt.io.NamedTag;
+import org.kryptonmc.nbt.io.PrimitiveArrays;
 import org.kryptonmc.nbt.io.TagCompression;
 import org.kryptonmc.nbt.io.TagIO;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -70,6 +82,182 @@ final class WriteTests {
         checkWrite(TagCompression.ZLIB, "Test");
     }
 
+    @Test
+    void testPooledGzipNamed() throws IOException {
+        checkWrite(TagCompression.POOLED_GZIP, "Test");
+    }
+
+    @Test
+    void testPooledFormatsMatchJdk() throws IOException {
+        checkCompatible(TagCompression.POOLED_GZIP, TagCompression.GZIP);
+        checkCompatible(TagCompression.POOLED_ZLIB, TagCompression.ZLIB);
+    }
+
+    @Test
+    void testLeveledZlibNamed() throws IOException {
+        checkWrite(TagCompression.zlib(Deflater.BEST_SPEED, Deflater.FILTERED), "Test");
+    }
+
+    @Test
+    void testRawDeflateNamed() throws IOException {
+        checkWrite(TagCompression.deflate(Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY), "Test");
+    }
+
+    @Test
+    void testDirectBufferRoundTrip() throws IOException {
+        final var buffer = ByteBuffer.allocateDirect(1024);
+        TagIO.writeNamed(buffer, "Test", TAG, TagCompression.NONE);
+        final int written = buffer.position();
+        buffer.flip();
+        final var result = TagIO.readNamed(buffer, TagCompression.NONE);
+        assertEquals("Test", result.name());
+        assertEquals(TAG, result.tag());
+        assertEquals(written, buffer.position());
+    }
+
+    @Test
+    void testSizeInBytesMatchesWrittenSize() throws IOException {
+        final var tag = TAG.toBuilder()
+                .putString("unicode \u00e9\u4e16", "nul \u0000, two bytes \u00e9, three bytes \u4e16, surrogates \ud83d\ude00")
+                .put("empty list", ListTag.EMPTY)
+                .build();
+        final var output = new ByteArrayOutputStream();
+        TagIO.writeNamed(output, "Test", tag, TagCompression.NONE);
+        assertEquals(output.size(), TagIO.sizeInBytes("Test", tag));
+        assertArrayEquals(output.toByteArray(), TagIO.toByteArray("Test", tag));
+    }
+
+    @Test
+    void testToByteArrayAfterChildArrayChangesSize() throws IOException {
+        final var array = IntArrayTag.of(new int[]{1, 2, 3});
+        final var tag = ImmutableCompoundTag.builder().put("array", array).build();
+        final int initialSize = TagIO.sizeInBytes("Test", tag);
+
+        array.addAll(new int[]{4, 5, 6});
+        assertEquals(initialSize + 3 * Integer.BYTES, TagIO.sizeInBytes("Test", tag));
+        checkToByteArray(tag);
+
+        array.removeRange(0, 5);
+        assertEquals(initialSize - 2 * Integer.BYTES, TagIO.sizeInBytes("Test", tag));
+        checkToByteArray(tag);
+    }
+
+    private static void checkToByteArray(final CompoundTag tag) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        TagIO.writeNamed(output, "Test", tag, TagCompression.NONE);
+        assertArrayEquals(output.toByteArray(), TagIO.toByteArray("Test", tag));
+    }
+
+    @Test
+    void testModifiedUtf8MatchesJdk() throws IOException {
+        final String[] values = {"", "ascii only key", "nul \u0000", "two bytes \u00e9", "three bytes \u4e16", "surrogates \ud83d\ude00",
+                "lone surrogate \ud83d", "x".repeat(20000)};
+        final var expected = new ByteArrayOutputStream();
+        try (final var output = new DataOutputStream(expected)) {
+            for (final String value : values) {
+                output.writeUTF(value);
+            }
+        }
+        final var actual = new ByteArrayOutputStream();
+        try (final var output = BufferedTagOutput.of(actual)) {
+            for (final String value : values) {
+                output.writeUTF(value);
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        final var buffered = BufferedTagInput.of(new ByteArrayInputStream(expected.toByteArray()));
+        final var direct = BufferedTagInput.of(ByteBuffer.allocateDirect(expected.size()).put(expected.toByteArray()).flip());
+        final var stream = new DataInputStream(new ByteArrayInputStream(expected.toByteArray()));
+        for (final String value : values) {
+            assertEquals(value, buffered.readUTF());
+            assertEquals(value, direct.readUTF());
+            assertEquals(value, ModifiedUtf8.read(stream));
+        }
+    }
+
+    @Test
+    void testBulkArraysMatchJdk() throws IOException {
+        // Large enough to span several buffers, with an odd size so that elements straddle the ends of buffers.
+        final long[] longs = new long[5001];
+        final int[] ints = new int[5001];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = i * 0x0123456789ABCDEFL;
+            ints[i] = i * 0x9E3779B9;
+        }
+        final var expected = new ByteArrayOutputStream();
+        try (final var output = new DataOutputStream(expected)) {
+            output.write(3);
+            for (final long value : longs) {
+                output.writeLong(value);
+            }
+            for (final int value : ints) {
+                output.writeInt(value);
+            }
+        }
+        final var buffered = new ByteArrayOutputStream();
+        try (final var output = BufferedTagOutput.of(buffered)) {
+            output.write(3);
+            PrimitiveArrays.writeLongs(output, longs, 0, longs.length);
+            PrimitiveArrays.writeInts(output, ints, 0, ints.length);
+        }
+        final var stream = new ByteArrayOutputStream();
+        try (final var output = new DataOutputStream(stream)) {
+            output.write(3);
+            PrimitiveArrays.writeLongs(output, longs, 0, longs.length);
+            PrimitiveArrays.writeInts(output, ints, 0, ints.length);
+        }
+        assertArrayEquals(expected.toByteArray(), buffered.toByteArray());
+        assertArrayEquals(expected.toByteArray(), stream.toByteArray());
+
+        for (final var input : new DataInput[] {BufferedTagInput.of(new ByteArrayInputStream(expected.toByteArray())),
+                new DataInputStream(new ByteArrayInputStream(expected.toByteArray()))}) {
+            assertEquals(3, input.readByte());
+            final long[] readLongs = new long[longs.length];
+            final int[] readInts = new int[ints.length];
+            PrimitiveArrays.readLongs(input, readLongs, 0, readLongs.length);
+            PrimitiveArrays.readInts(input, readInts, 0, readInts.length);
+            assertArrayEquals(longs, readLongs);
+            assertArrayEquals(ints, readInts);
+        }
+    }
+
+    @Test
+    void testRewriteIsByteIdentical() throws IOException {
+        final var builder = MutableCompoundTag.builder();
+        // More entries than fit in a flat compound without an index, in an order no hash map would keep.
+        for (int i = 40; i > 0; i--) {
+            builder.putInt("key " + (i * 7919 % 41), i);
+        }
+        final var tag = TAG.toBuilder().put("large", builder.build()).build();
+        final byte[] original = TagIO.toByteArray("Test", tag);
+        final var read = TagIO.readNamed(original, TagCompression.NONE);
+        assertEquals(tag, read.tag());
+        assertArrayEquals(original, TagIO.toByteArray(read.name(), (CompoundTag) read.tag()));
+    }
+
+    @Test
+    void testWriteAllKeepsOrder() throws IOException {
+        final var tags = new ArrayList<NamedTag>();
+        for (int i = 0; i < 100; i++) {
+            tags.add(new NamedTag("Tag " + i, TAG));
+        }
+        final var results = TagIO.writeAll(tags, TagCompression.POOLED_ZLIB, ForkJoinPool.commonPool()).join();
+        assertEquals(tags.size(), results.size());
+        for (int i = 0; i < tags.size(); i++) {
+            assertEquals(tags.get(i), TagIO.readNamed(results.get(i), TagCompression.ZLIB));
+        }
+    }
+
+    private static void checkCompatible(final TagCompression pooled, final TagCompression jdk) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, TAG, pooled);
+        assertEquals(TAG, TagIO.read(new ByteArrayInputStream(output.toByteArray()), jdk));
+        output.reset();
+        TagIO.write(output, TAG, jdk);
+        assertEquals(TAG, TagIO.read(new ByteArrayInputStream(output.toByteArray()), pooled));
+    }
+
     private static void checkWrite(final TagCompression compression, final String name) throws IOException {
         final var inputStream = new PipedInputStream();
         final var outputStream = new PipedOutputStream(inputStream);
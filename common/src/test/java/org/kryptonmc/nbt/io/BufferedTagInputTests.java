@@ -0,0 +1,88 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kryptonmc.nbt.CollectingTagVisitor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+final class BufferedTagInputTests {
+
+    @Test
+    void mappedWithSmallWindows(final @TempDir Path directory) throws IOException {
+        final var file = copyResource(directory, "bigtest.nbt");
+        final var expected = TagIO.readNamed(getResource("bigtest.nbt"), TagCompression.NONE);
+        // Windows much smaller than the file, and than some of the strings and arrays in it, so every read path has to remap.
+        for (final long window : new long[] {8, 16, 61, 1024}) {
+            try (final BufferedTagInput input = BufferedTagInput.map(file, window)) {
+                assertEquals(expected, TagUtil.readNamedTag(input));
+                assertFalse(input.hasRemaining());
+            }
+        }
+    }
+
+    @Test
+    void mappedSkipping(final @TempDir Path directory) throws IOException {
+        final var file = copyResource(directory, "bigtest.nbt");
+        final byte[] data = Files.readAllBytes(file);
+        try (final BufferedTagInput input = BufferedTagInput.map(file, 16)) {
+            int position = 0;
+            for (final int skip : new int[] {3, 16, 40, 1, 1000, 7}) {
+                assertEquals(skip, input.skipBytes(skip));
+                position += skip;
+                assertEquals(data[position] & 0xFF, input.peek());
+                final byte[] read = new byte[5];
+                input.readFully(read);
+                assertArrayEquals(Arrays.copyOfRange(data, position, position + 5), read);
+                position += 5;
+            }
+            // Skipping past the end only skips what is left.
+            assertEquals(data.length - position, input.skipBytes(data.length));
+            assertFalse(input.hasRemaining());
+        }
+    }
+
+    @Test
+    void parseMapped(final @TempDir Path directory) throws IOException {
+        final var file = copyResource(directory, "bigtest.nbt");
+        final var expected = TagIO.read(getResource("bigtest.nbt"), TagCompression.NONE);
+        final var visitor = new CollectingTagVisitor();
+        TagIO.parseMapped(file, visitor);
+        assertEquals(expected, visitor.result());
+
+        final var gzipped = copyResource(directory, "bigtest_gzip.nbt");
+        TagIO.parse(gzipped, TagCompression.GZIP, visitor);
+        assertEquals(expected, visitor.result());
+        TagIO.parse(file, TagCompression.NONE, visitor);
+        assertEquals(expected, visitor.result());
+    }
+
+    private static Path copyResource(final Path directory, final String name) throws IOException {
+        final var file = directory.resolve(name);
+        try (final InputStream input = getResource(name)) {
+            Files.copy(input, file);
+        }
+        return file;
+    }
+
+    private static InputStream getResource(final String name) {
+        return Objects.requireNonNull(Thread.currentThread().getContextClassLoader().getResourceAsStream(name),
+                "Could not find resource " + name + "!");
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class KeyInternerTests {
+
+    @Test
+    void tableSizeRoundsUpToPowerOfTwo() {
+        assertEquals(2, KeyInterner.tableSize(2));
+        assertEquals(1024, KeyInterner.tableSize(1000));
+        assertEquals(1024, KeyInterner.tableSize(1024));
+        assertEquals(2048, KeyInterner.tableSize(1025));
+    }
+
+    @Test
+    void tableSizeIsClampedAtLargeCapacities() {
+        assertEquals(1 << 30, KeyInterner.tableSize(1 << 30));
+        assertEquals(1 << 30, KeyInterner.tableSize((1 << 30) + 1));
+        assertEquals(1 << 30, KeyInterner.tableSize((1 << 30) + 2));
+        assertEquals(1 << 30, KeyInterner.tableSize(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void createRejectsNonPositiveCapacities() {
+        assertThrows(IllegalArgumentException.class, () -> KeyInterner.create(0));
+        assertThrows(IllegalArgumentException.class, () -> KeyInterner.create(-1));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class PooledStreamTests {
+
+    @Test
+    void concurrentRoundTrips() throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 64; i++) {
+                final int seed = i;
+                futures.add(executor.submit(() -> {
+                    roundTrip(TagCompression.POOLED_GZIP, TagCompression.GZIP, seed);
+                    roundTrip(TagCompression.POOLED_ZLIB, TagCompression.ZLIB, seed);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedHeaderReleasesDeflater() {
+        final CodecPool<Deflater> pool = CodecPool.deflaters(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY, true);
+        final Deflater deflater = pool.acquire();
+        pool.release(deflater);
+        final OutputStream failing = new OutputStream() {
+            @Override
+            public void write(final int value) throws IOException {
+                throw new IOException("Broken!");
+            }
+        };
+        assertThrows(IOException.class, () -> new PooledDeflaterOutputStream(failing, pool, true));
+        assertSame(deflater, pool.acquire());
+    }
+
+    private static void roundTrip(final TagCompression pooled, final TagCompression jdk, final int seed) throws IOException {
+        final var builder = ImmutableCompoundTag.builder();
+        for (int i = 0; i < 200; i++) {
+            builder.putString("string" + i, "value " + seed * i).putIntArray("ints" + i, new int[] {seed, i, seed * i});
+        }
+        final CompoundTag tag = builder.build();
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, tag, pooled);
+        final byte[] compressed = output.toByteArray();
+        assertEquals(tag, TagIO.read(new ByteArrayInputStream(compressed), pooled));
+        assertEquals(tag, TagIO.read(new ByteArrayInputStream(compressed), jdk));
+    }
+}
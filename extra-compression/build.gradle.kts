@@ -0,0 +1,9 @@
+plugins {
+    id("nbt.common-conventions")
+}
+
+dependencies {
+    api(projects.common)
+    implementation(libs.lz4)
+    implementation(libs.zstd)
+}
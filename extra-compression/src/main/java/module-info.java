@@ -0,0 +1,25 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+/**
+ * Extra compression types for Krypton NBT, which need native libraries, and
+ * so are not included in the common module.
+ */
+module nbt.compression {
+
+    requires transitive nbt.common;
+    requires static transitive org.jetbrains.annotations;
+    requires org.lz4.java;
+    requires com.github.luben.zstd_jni;
+
+    exports org.kryptonmc.nbt.compression;
+
+    provides org.kryptonmc.nbt.io.TagCompressionProvider with
+            org.kryptonmc.nbt.compression.Lz4CompressionProvider,
+            org.kryptonmc.nbt.compression.ZstdCompressionProvider;
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.compression;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.io.TagCompression;
+
+/**
+ * Compression types that depend on native libraries.
+ *
+ * <p>These are also available by name through
+ * {@link TagCompression#byName(String)}, as "lz4" and "zstd", when this module
+ * is present.</p>
+ */
+public final class ExtraCompression {
+
+    /**
+     * The compression type for LZ4 compressed data, in the block stream
+     * format used by Minecraft's region files.
+     */
+    public static final @NotNull TagCompression LZ4 = new TagCompression(LZ4BlockInputStream::new, LZ4BlockOutputStream::new);
+    /**
+     * The compression type for Zstandard compressed data, compressed with
+     * the default level.
+     */
+    public static final @NotNull TagCompression ZSTD = zstd(3);
+
+    /**
+     * Creates a new LZ4 compression type that compresses data in blocks of
+     * the given size.
+     *
+     * @param blockSize the size of the blocks, in bytes
+     * @return a new LZ4 compression type
+     */
+    public static @NotNull TagCompression lz4(final int blockSize) {
+        return new TagCompression(LZ4BlockInputStream::new, output -> new LZ4BlockOutputStream(output, blockSize));
+    }
+
+    /**
+     * Creates a new Zstandard compression type that compresses with the given
+     * compression level.
+     *
+     * <p>The streams reuse their buffers through a shared pool, as they are
+     * quite large.</p>
+     *
+     * @param level the compression level
+     * @return a new Zstandard compression type
+     */
+    public static @NotNull TagCompression zstd(final int level) {
+        return new TagCompression(input -> new ZstdInputStream(input, RecyclingBufferPool.INSTANCE),
+                output -> new ZstdOutputStream(output, RecyclingBufferPool.INSTANCE, level));
+    }
+
+    private ExtraCompression() {
+        throw new AssertionError("This class cannot be instantiated!");
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagCompressionProvider;
+
+/**
+ * The provider for the "zstd" compression type.
+ *
+ * @see ExtraCompression#ZSTD
+ */
+public final class ZstdCompressionProvider implements TagCompressionProvider {
+
+    @Override
+    public @NotNull String name() {
+        return "zstd";
+    }
+
+    @Override
+    public @NotNull TagCompression compression() {
+        return ExtraCompression.ZSTD;
+    }
+}
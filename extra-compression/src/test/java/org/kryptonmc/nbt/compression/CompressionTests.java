@@ -0,0 +1,55 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.io.TagCompression;
+import org.kryptonmc.nbt.io.TagIO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class CompressionTests {
+
+    private static final CompoundTag TAG = ImmutableCompoundTag.builder()
+            .putString("Status", "minecraft:full")
+            .putLongs("data", 1, 2, 3, 4, 5, 6, 7, 8)
+            .putCompound("nested", builder -> builder.putInt("value", 31235))
+            .build();
+
+    @Test
+    void providersAreRegistered() {
+        assertSame(ExtraCompression.LZ4, TagCompression.byName("lz4"));
+        assertSame(ExtraCompression.ZSTD, TagCompression.byName("ZSTD"));
+        assertEquals("zstd", TagCompression.nameOf(ExtraCompression.ZSTD));
+    }
+
+    @Test
+    void lz4RoundTrip() throws IOException {
+        checkRoundTrip(ExtraCompression.LZ4);
+        checkRoundTrip(ExtraCompression.lz4(1024));
+    }
+
+    @Test
+    void zstdRoundTrip() throws IOException {
+        checkRoundTrip(ExtraCompression.ZSTD);
+        checkRoundTrip(ExtraCompression.zstd(19));
+    }
+
+    private static void checkRoundTrip(final TagCompression compression) throws IOException {
+        final var output = new ByteArrayOutputStream();
+        TagIO.write(output, TAG, compression);
+        assertEquals(TAG, TagIO.read(new ByteArrayInputStream(output.toByteArray()), compression));
+    }
+}
@@ -13,6 +13,8 @@ pluginManagement {
 
 rootProject.name = "nbt"
 
+include("benchmarks")
 include("common")
+include("extra-compression")
 include("extra-kotlin")
 include("stream")
@@ -8,10 +8,14 @@
  */
 package org.kryptonmc.nbt.stream;
 
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.kryptonmc.nbt.ByteArrayTag;
 import org.kryptonmc.nbt.ByteTag;
 import org.kryptonmc.nbt.CompoundTag;
@@ -25,15 +29,32 @@ import org.kryptonmc.nbt.LongArrayTag;
 import org.kryptonmc.nbt.LongTag;
 import org.kryptonmc.nbt.ShortTag;
 import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.KeyInterner;
+import org.kryptonmc.nbt.io.PrimitiveArrays;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
+import org.kryptonmc.nbt.util.Types;
 
 public final class BinaryNBTReader implements NBTReader {
 
-    private final DataInputStream input;
+    private static final int NO_TYPE = -1;
+
+    private final BufferedTagInput input;
     private int stackSize = 1;
     private int[] scopes = new int[32];
-    private String deferredName;
+    // The amount of elements left in each array or list scope, so we know when it has no more without asking the input.
+    private int[] remaining = new int[32];
+    // The type of the elements in each array or list scope, so elements can be skipped without reading anything.
+    private int[] elementTypes = new int[32];
+    // The type of the entry whose name has been read, if any, as the name comes before the value.
+    private int deferredType = NO_TYPE;
+    private @Nullable String deferredName;
+
+    public BinaryNBTReader(final @NotNull InputStream input) {
+        this(BufferedTagInput.of(input));
+    }
 
-    public BinaryNBTReader(final @NotNull DataInputStream input) {
+    public BinaryNBTReader(final @NotNull BufferedTagInput input) {
         this.input = input;
         Arrays.fill(scopes, -1);
         scopes[0] = NBTScope.COMPOUND;
@@ -41,17 +62,15 @@ public final class BinaryNBTReader implements NBTReader {
 
     @Override
     public byte peekType() throws IOException {
-        input.mark(1);
-        final byte type = input.readByte();
-        input.reset();
-        return type;
+        final int next = input.peek();
+        if (next == -1) throw new EOFException();
+        return (byte) next;
     }
 
     @Override
     public int beginByteArray() throws IOException {
         readNameAndType(ByteArrayTag.ID);
-        open(NBTScope.BYTE_ARRAY);
-        return input.readInt();
+        return open(NBTScope.BYTE_ARRAY, ByteTag.ID, input.readInt());
     }
 
     @Override
@@ -62,8 +81,7 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public int beginIntArray() throws IOException {
         readNameAndType(IntArrayTag.ID);
-        open(NBTScope.INT_ARRAY);
-        return input.readInt();
+        return open(NBTScope.INT_ARRAY, IntTag.ID, input.readInt());
     }
 
     @Override
@@ -74,8 +92,7 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public int beginLongArray() throws IOException {
         readNameAndType(LongArrayTag.ID);
-        open(NBTScope.LONG_ARRAY);
-        return input.readInt();
+        return open(NBTScope.LONG_ARRAY, LongTag.ID, input.readInt());
     }
 
     @Override
@@ -86,12 +103,11 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public int beginList(final int elementType) throws IOException {
         readNameAndType(ListTag.ID);
-        open(NBTScope.LIST);
         final int readType = input.readByte();
         if (elementType != readType) throw new IllegalStateException("Expected list of type " + elementType + ", got " + readType + "!");
         final int size = input.readInt();
         if (elementType == EndTag.ID && size > 0) throw new IllegalStateException("Missing required type for non-empty list tag!");
-        return size;
+        return open(NBTScope.LIST, elementType, size);
     }
 
     @Override
@@ -102,7 +118,7 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public void beginCompound() throws IOException {
         readNameAndType(CompoundTag.ID);
-        open(NBTScope.COMPOUND);
+        open(NBTScope.COMPOUND, NO_TYPE, 0);
     }
 
     @Override
@@ -113,7 +129,10 @@ public final class BinaryNBTReader implements NBTReader {
 
     @Override
     public boolean hasNext() throws IOException {
-        return input.available() != 0;
+        if (peekScope() != NBTScope.COMPOUND) return remaining[stackSize - 1] > 0;
+        if (deferredType != NO_TYPE) return true;
+        if (stackSize == 1) return input.hasRemaining();
+        return peekType() != EndTag.ID;
     }
 
     @Override
@@ -124,8 +143,37 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public @NotNull String nextName() throws IOException {
         if (peekScope() != NBTScope.COMPOUND) throw new IllegalStateException("Nesting problem!");
-        input.readByte();
-        return deferredName = input.readUTF();
+        deferredType = input.readByte();
+        return deferredName = KeyInterner.shared().read(input);
+    }
+
+    @Override
+    public @NotNull ByteBuffer nextNameBytes() throws IOException {
+        if (peekScope() != NBTScope.COMPOUND) throw new IllegalStateException("Nesting problem!");
+        deferredType = input.readByte();
+        deferredName = null;
+        return input.readUTFBytes();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        final int scope = peekScope();
+        if (scope != NBTScope.COMPOUND) {
+            consume(scope, 1);
+            // Arrays and lists only hold one type, so we know what we're skipping without reading anything.
+            Types.of(elementTypes[stackSize - 1]).skip(input);
+            return;
+        }
+        int type = deferredType;
+        if (type == NO_TYPE) {
+            // Don't consume the end tag, so the reader can still end the compound after this.
+            if (peekType() == EndTag.ID) throw new IllegalStateException("No value to skip!");
+            type = input.readByte();
+            input.skipBytes(input.readUnsignedShort());
+        }
+        deferredType = NO_TYPE;
+        deferredName = null;
+        Types.of(type).skip(input);
     }
 
     @Override
@@ -167,7 +215,7 @@ public final class BinaryNBTReader implements NBTReader {
     @Override
     public @NotNull String nextString() throws IOException {
         readNameAndType(StringTag.ID);
-        return input.readUTF();
+        return ModifiedUtf8.read(input);
     }
 
     @Override
@@ -176,6 +224,27 @@ public final class BinaryNBTReader implements NBTReader {
         if (type != EndTag.ID) throw new IllegalStateException("Expected END, got " + type + "!");
     }
 
+    @Override
+    public void readBytes(final byte@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        consume(NBTScope.BYTE_ARRAY, length);
+        input.readFully(destination, offset, length);
+    }
+
+    @Override
+    public void readInts(final int@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        consume(NBTScope.INT_ARRAY, length);
+        PrimitiveArrays.readInts(input, destination, offset, length);
+    }
+
+    @Override
+    public void readLongs(final long@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        consume(NBTScope.LONG_ARRAY, length);
+        PrimitiveArrays.readLongs(input, destination, offset, length);
+    }
+
     @Override
     public void close() throws IOException {
         input.close();
@@ -190,6 +259,8 @@ public final class BinaryNBTReader implements NBTReader {
         if (stackSize != scopes.length) return false;
         if (stackSize == 512) throw new IllegalStateException("Depth too high! Maximum depth is 512!");
         scopes = Arrays.copyOf(scopes, scopes.length * 2);
+        remaining = Arrays.copyOf(remaining, remaining.length * 2);
+        elementTypes = Arrays.copyOf(elementTypes, elementTypes.length * 2);
         return true;
     }
 
@@ -197,25 +268,43 @@ public final class BinaryNBTReader implements NBTReader {
         scopes[stackSize++] = newTop;
     }
 
-    private void open(final int scope) {
+    private int open(final int scope, final int elementType, final int size) {
         checkStack();
+        remaining[stackSize] = size;
+        elementTypes[stackSize] = elementType;
         pushScope(scope);
+        return size;
+    }
+
+    private void consume(final int scope, final int count) {
+        if (peekScope() != scope) throw new IllegalStateException("Nesting problem!");
+        if (count > remaining[stackSize - 1]) throw new IllegalStateException("Cannot read " + count + " elements, only " + remaining[stackSize - 1] + " left!");
+        remaining[stackSize - 1] -= count;
     }
 
     private void close(final int scope) {
         if (peekScope() != scope) throw new IllegalStateException("Nesting problem!");
-        if (deferredName != null) throw new IllegalStateException("Dangling name: " + deferredName + "!");
+        if (deferredType != NO_TYPE) throw new IllegalStateException("Dangling name" + (deferredName != null ? ": " + deferredName : "") + "!");
         stackSize--;
     }
 
     private void readNameAndType(final int type) throws IOException {
-        if (peekScope() != NBTScope.COMPOUND) return;
-        if (deferredName == null) {
+        final int scope = peekScope();
+        if (scope != NBTScope.COMPOUND) {
+            final int elementType = elementTypes[stackSize - 1];
+            if (type != elementType) throw new IllegalStateException("Expected element of type " + elementType + ", got " + type + "!");
+            consume(scope, 1);
+            return;
+        }
+        if (deferredType == NO_TYPE) {
             final int readType = input.readByte();
             if (type != readType) throw new IllegalStateException("Expected " + type + ", got " + readType + "!");
-            deferredName = input.readUTF();
+            // Nobody asked for the name, so it mustn't be left dangling for the end of the container.
+            input.skipBytes(input.readUnsignedShort());
             return;
         }
+        if (type != deferredType) throw new IllegalStateException("Expected " + type + ", got " + deferredType + "!");
+        deferredType = NO_TYPE;
         deferredName = null;
     }
 }
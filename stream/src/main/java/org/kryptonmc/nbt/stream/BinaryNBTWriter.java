@@ -26,6 +26,8 @@ import org.kryptonmc.nbt.LongArrayTag;
 import org.kryptonmc.nbt.LongTag;
 import org.kryptonmc.nbt.ShortTag;
 import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.io.PrimitiveArrays;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
 
 public final class BinaryNBTWriter implements NBTWriter {
 
@@ -157,7 +159,7 @@ public final class BinaryNBTWriter implements NBTWriter {
     @Override
     public void value(final @NotNull String value) throws IOException {
         writeNameAndType(StringTag.ID);
-        output.writeUTF(value);
+        ModifiedUtf8.write(output, value);
     }
 
     @Override
@@ -165,6 +167,25 @@ public final class BinaryNBTWriter implements NBTWriter {
         output.writeByte(EndTag.ID);
     }
 
+    @Override
+    public void writeBytes(final byte@NotNull[] source, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        checkScope(NBTScope.BYTE_ARRAY);
+        output.write(source, offset, length);
+    }
+
+    @Override
+    public void writeInts(final int@NotNull[] source, final int offset, final int length) throws IOException {
+        checkScope(NBTScope.INT_ARRAY);
+        PrimitiveArrays.writeInts(output, source, offset, length);
+    }
+
+    @Override
+    public void writeLongs(final long@NotNull[] source, final int offset, final int length) throws IOException {
+        checkScope(NBTScope.LONG_ARRAY);
+        PrimitiveArrays.writeLongs(output, source, offset, length);
+    }
+
     @Override
     public void close() throws IOException {
         output.close();
@@ -175,6 +196,10 @@ public final class BinaryNBTWriter implements NBTWriter {
         return scopes[stackSize - 1];
     }
 
+    private void checkScope(final int scope) {
+        if (peekScope() != scope) throw new IllegalStateException("Nesting problem!");
+    }
+
     private boolean checkStack() {
         if (stackSize != scopes.length) return false;
         if (stackSize == 512) throw new IllegalStateException("Depth too high! Maximum depth is 512!");
@@ -201,7 +226,7 @@ public final class BinaryNBTWriter implements NBTWriter {
     private void writeNameAndType(final int type) throws IOException {
         if (peekScope() != NBTScope.COMPOUND) return;
         output.writeByte(type);
-        output.writeUTF(Objects.requireNonNull(deferredName, "All binary tags must be named!"));
+        ModifiedUtf8.write(output, Objects.requireNonNull(deferredName, "All binary tags must be named!"));
         deferredName = null;
     }
 }
@@ -0,0 +1,597 @@
+/*
+ * This file is part of Krypton NBT, licensed under the MIT license.
+ *
+ * Copyright (C) 2021 KryptonMC and contributors
+ *
+ * This project is licensed under the terms of the MIT license.
+ * For more details, please reference the LICENSE file in the top-level directory.
+ */
+package org.kryptonmc.nbt.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.kryptonmc.nbt.ByteArrayTag;
+import org.kryptonmc.nbt.ByteTag;
+import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.DoubleTag;
+import org.kryptonmc.nbt.EndTag;
+import org.kryptonmc.nbt.FloatTag;
+import org.kryptonmc.nbt.IntArrayTag;
+import org.kryptonmc.nbt.IntTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.LongArrayTag;
+import org.kryptonmc.nbt.LongTag;
+import org.kryptonmc.nbt.ShortTag;
+import org.kryptonmc.nbt.StringTag;
+import org.kryptonmc.nbt.io.BufferedTagInput;
+import org.kryptonmc.nbt.io.KeyInterner;
+import org.kryptonmc.nbt.io.PrimitiveArrays;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
+import org.kryptonmc.nbt.util.Types;
+
+/**
+ * A pull parser for binary NBT data, which reads the data as a flat sequence
+ * of tokens.
+ *
+ * <p>Unlike {@link NBTReader}, callers don't need to know what comes next
+ * before reading it. Every call to {@link #next()} returns the next token,
+ * and the value of that token is then available from this parser until the
+ * next call. Every entry of a compound is a {@link Token#NAME} token
+ * followed by the tokens of its value, and every root tag is read as an
+ * entry, so {@code {a: 1}} named {@code root} reads as {@code NAME},
+ * {@code COMPOUND_START}, {@code NAME}, {@code INT}, {@code COMPOUND_END},
+ * and then {@code END} once there is no more input. A root that is only an
+ * end tag, with no name or value, reads as {@code EMPTY}.</p>
+ *
+ * <p>Nothing is allocated per token. Numbers are returned through primitive
+ * getters, names and strings through a reusable buffer of their raw bytes or
+ * of their decoded characters, and arrays in chunks of at most
+ * {@link #CHUNK_SIZE} elements through reusable primitive arrays. Only
+ * {@link #text()} creates a string.</p>
+ *
+ * <p>Instances of this class are not thread-safe.</p>
+ */
+public final class NBTPullParser implements AutoCloseable {
+
+    /**
+     * The maximum amount of elements in a single {@link Token#ARRAY_CHUNK}.
+     */
+    public static final int CHUNK_SIZE = 1024;
+
+    private static final int MAX_DEPTH = 512;
+    private static final int NO_TYPE = -1;
+    // Chunk buffers are only allocated once a chunk of their type is read, so most parsers only ever allocate one of them.
+    private static final byte[] NO_BYTES = new byte[0];
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+
+    private final BufferedTagInput input;
+    private @Nullable Token token;
+
+    // The containers we are currently inside, as their type and the amount of elements left, for lists and arrays.
+    private int depth;
+    private int[] types = new int[16];
+    private int[] elementTypes = new int[16];
+    private int[] remaining = new int[16];
+    // The type of the value following the last name, which is read on the next call to next.
+    private int pendingType = NO_TYPE;
+    // The end token of a container that was skipped, which is returned on the next call to next.
+    private @Nullable Token pendingEnd;
+
+    private int type = NO_TYPE;
+    private long longValue;
+    private double doubleValue;
+    private int size;
+    private int elementType = NO_TYPE;
+
+    private byte[] text = new byte[64];
+    private int textLength;
+    private ByteBuffer textBytes = ByteBuffer.wrap(text).asReadOnlyBuffer();
+    private char[] chars = new char[64];
+    private CharBuffer textChars = CharBuffer.wrap(chars);
+    private int charCount = -1;
+
+    private byte[] bytes = NO_BYTES;
+    private int[] ints = NO_INTS;
+    private long[] longs = NO_LONGS;
+    private int chunkSize;
+
+    /**
+     * Creates a new parser that reads from the given stream.
+     *
+     * @param input the stream to read from
+     */
+    public NBTPullParser(final @NotNull InputStream input) {
+        this(BufferedTagInput.of(input));
+    }
+
+    /**
+     * Creates a new parser that reads from the given input.
+     *
+     * @param input the input to read from
+     */
+    public NBTPullParser(final @NotNull BufferedTagInput input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return the next token
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if the data is not valid
+     */
+    public @NotNull Token next() throws IOException {
+        if (pendingEnd != null) {
+            token = pendingEnd;
+            pendingEnd = null;
+            return token;
+        }
+        if (pendingType != NO_TYPE) {
+            final int next = pendingType;
+            pendingType = NO_TYPE;
+            return token = startValue(next);
+        }
+        if (depth == 0) {
+            if (!input.hasRemaining()) return token = Token.END;
+            return token = readEntry(Token.EMPTY);
+        }
+        final int top = depth - 1;
+        return token = switch (types[top]) {
+            case CompoundTag.ID -> readEntry(Token.COMPOUND_END);
+            case ListTag.ID -> {
+                if (remaining[top] == 0) yield end(Token.LIST_END);
+                remaining[top]--;
+                yield startValue(elementTypes[top]);
+            }
+            default -> {
+                if (remaining[top] == 0) yield end(Token.ARRAY_END);
+                yield readChunk(top);
+            }
+        };
+    }
+
+    /**
+     * Skips the value of the current token.
+     *
+     * <p>If the current token is {@link Token#NAME}, the value of the entry
+     * is skipped, so the next token is the one after the entry. If the
+     * current token starts a container, the rest of the container is
+     * skipped, so the next token is the one that ends it. Skipped data is
+     * walked by its lengths, without decoding anything in it.</p>
+     *
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if the current token has no value to
+     * skip
+     */
+    public void skipValue() throws IOException {
+        if (token == Token.NAME && pendingType != NO_TYPE) {
+            Types.of(pendingType).skip(input);
+            pendingType = NO_TYPE;
+            return;
+        }
+        if (token != Token.COMPOUND_START && token != Token.LIST_START && token != Token.ARRAY_START) {
+            throw new IllegalStateException("Cannot skip the value of " + token + "!");
+        }
+        final int top = depth - 1;
+        if (types[top] == CompoundTag.ID) {
+            CompoundTag.TYPE.skip(input);
+            pendingEnd = end(Token.COMPOUND_END);
+            return;
+        }
+        Types.of(elementTypes[top]).skip(input, remaining[top]);
+        pendingEnd = end(types[top] == ListTag.ID ? Token.LIST_END : Token.ARRAY_END);
+    }
+
+    /**
+     * Gets the current token.
+     *
+     * @return the current token, or null if {@link #next()} has not been
+     * called yet
+     */
+    public @Nullable Token token() {
+        return token;
+    }
+
+    /**
+     * Gets the amount of containers that the current token is inside.
+     *
+     * <p>Tokens that start a container are counted as inside it, and tokens
+     * that end a container are not.</p>
+     *
+     * @return the current depth
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Gets the type of the current value, for tokens that are a value or
+     * start a container.
+     *
+     * @return the type ID of the current value
+     */
+    public int tagType() {
+        return type;
+    }
+
+    /**
+     * Gets the current value as an int, for {@link Token#BYTE},
+     * {@link Token#SHORT} and {@link Token#INT} tokens.
+     *
+     * @return the current value
+     */
+    public int intValue() {
+        return (int) longValue;
+    }
+
+    /**
+     * Gets the current value as a long, for {@link Token#BYTE},
+     * {@link Token#SHORT}, {@link Token#INT} and {@link Token#LONG}
+     * tokens.
+     *
+     * @return the current value
+     */
+    public long longValue() {
+        return longValue;
+    }
+
+    /**
+     * Gets the current value as a float, for {@link Token#FLOAT} tokens.
+     *
+     * @return the current value
+     */
+    public float floatValue() {
+        return (float) doubleValue;
+    }
+
+    /**
+     * Gets the current value as a double, for {@link Token#FLOAT} and
+     * {@link Token#DOUBLE} tokens.
+     *
+     * @return the current value
+     */
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * Gets the amount of elements in the current list or array, for
+     * {@link Token#LIST_START} and {@link Token#ARRAY_START} tokens.
+     *
+     * @return the amount of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the type of the elements in the current list or array, for
+     * {@link Token#LIST_START}, {@link Token#ARRAY_START} and
+     * {@link Token#ARRAY_CHUNK} tokens.
+     *
+     * @return the type ID of the elements
+     */
+    public int elementType() {
+        return elementType;
+    }
+
+    /**
+     * Gets the modified UTF-8 bytes of the current name or string, for
+     * {@link Token#NAME} and {@link Token#STRING} tokens, without decoding
+     * them.
+     *
+     * <p>The returned buffer is read-only, and is reused, so its contents are
+     * only valid until the next call to {@link #next()}.</p>
+     *
+     * @return the encoded name or string
+     */
+    public @NotNull ByteBuffer textBytes() {
+        return textBytes.clear().limit(textLength);
+    }
+
+    /**
+     * Gets the characters of the current name or string, for
+     * {@link Token#NAME} and {@link Token#STRING} tokens.
+     *
+     * <p>The returned buffer is reused, so its contents are only valid until
+     * the next call to {@link #next()}.</p>
+     *
+     * @return the decoded name or string
+     * @throws IOException if the name or string is not valid modified UTF-8
+     */
+    public @NotNull CharBuffer textChars() throws IOException {
+        if (charCount == -1) {
+            if (chars.length < textLength) {
+                chars = new char[text.length];
+                textChars = CharBuffer.wrap(chars);
+            }
+            charCount = ModifiedUtf8.decode(text, 0, textLength, chars);
+        }
+        return textChars.clear().limit(charCount);
+    }
+
+    /**
+     * Gets the current name or string, for {@link Token#NAME} and
+     * {@link Token#STRING} tokens.
+     *
+     * <p>This is the only getter that allocates, as it creates a new string,
+     * though names may be shared through {@link KeyInterner#shared()}.</p>
+     *
+     * @return the name or string
+     * @throws IOException if the name or string is not valid modified UTF-8
+     */
+    public @NotNull String text() throws IOException {
+        if (token == Token.NAME) return KeyInterner.shared().intern(text, 0, textLength);
+        return ModifiedUtf8.decode(text, 0, textLength);
+    }
+
+    /**
+     * Gets the amount of elements in the current chunk, for
+     * {@link Token#ARRAY_CHUNK} tokens.
+     *
+     * @return the amount of elements
+     */
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Gets the elements of the current chunk of a byte array, in the first
+     * {@link #chunkSize()} elements of the returned array.
+     *
+     * <p>The returned array is reused, so its contents are only valid until
+     * the next call to {@link #next()}. It is empty until a chunk of this
+     * type has been read.</p>
+     *
+     * @return the elements
+     */
+    public byte@NotNull[] byteChunk() {
+        return bytes;
+    }
+
+    /**
+     * Gets the elements of the current chunk of an int array, in the first
+     * {@link #chunkSize()} elements of the returned array.
+     *
+     * <p>The returned array is reused, so its contents are only valid until
+     * the next call to {@link #next()}. It is empty until a chunk of this
+     * type has been read.</p>
+     *
+     * @return the elements
+     */
+    public int@NotNull[] intChunk() {
+        return ints;
+    }
+
+    /**
+     * Gets the elements of the current chunk of a long array, in the first
+     * {@link #chunkSize()} elements of the returned array.
+     *
+     * <p>The returned array is reused, so its contents are only valid until
+     * the next call to {@link #next()}. It is empty until a chunk of this
+     * type has been read.</p>
+     *
+     * @return the elements
+     */
+    public long@NotNull[] longChunk() {
+        return longs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private Token readEntry(final Token end) throws IOException {
+        final int next = input.readByte();
+        if (next == EndTag.ID) {
+            // A lone end tag at the root is an empty root, not the end of the input, as more roots may follow it.
+            if (depth == 0) {
+                type = EndTag.ID;
+                return end;
+            }
+            return end(end);
+        }
+        readText();
+        pendingType = next;
+        type = NO_TYPE;
+        return Token.NAME;
+    }
+
+    private Token startValue(final int next) throws IOException {
+        type = next;
+        return switch (next) {
+            case ByteTag.ID -> {
+                longValue = input.readByte();
+                yield Token.BYTE;
+            }
+            case ShortTag.ID -> {
+                longValue = input.readShort();
+                yield Token.SHORT;
+            }
+            case IntTag.ID -> {
+                longValue = input.readInt();
+                yield Token.INT;
+            }
+            case LongTag.ID -> {
+                longValue = input.readLong();
+                yield Token.LONG;
+            }
+            case FloatTag.ID -> {
+                doubleValue = input.readFloat();
+                yield Token.FLOAT;
+            }
+            case DoubleTag.ID -> {
+                doubleValue = input.readDouble();
+                yield Token.DOUBLE;
+            }
+            case StringTag.ID -> {
+                readText();
+                yield Token.STRING;
+            }
+            case ByteArrayTag.ID -> startArray(next, ByteTag.ID);
+            case IntArrayTag.ID -> startArray(next, IntTag.ID);
+            case LongArrayTag.ID -> startArray(next, LongTag.ID);
+            case ListTag.ID -> {
+                final int listType = input.readByte();
+                final int listSize = input.readInt();
+                if (listType == EndTag.ID && listSize > 0) throw new IllegalStateException("Missing required type for non-empty list tag!");
+                if (listSize < 0) throw new IllegalStateException("Negative list size: " + listSize);
+                push(next, listType, listSize);
+                yield Token.LIST_START;
+            }
+            case CompoundTag.ID -> {
+                push(next, NO_TYPE, 0);
+                yield Token.COMPOUND_START;
+            }
+            default -> throw new IllegalStateException("Unknown tag type: " + next);
+        };
+    }
+
+    private Token startArray(final int arrayType, final int arrayElementType) throws IOException {
+        final int arraySize = input.readInt();
+        if (arraySize < 0) throw new IllegalStateException("Negative array size: " + arraySize);
+        push(arrayType, arrayElementType, arraySize);
+        return Token.ARRAY_START;
+    }
+
+    private Token readChunk(final int top) throws IOException {
+        final int count = Math.min(remaining[top], CHUNK_SIZE);
+        remaining[top] -= count;
+        chunkSize = count;
+        elementType = elementTypes[top];
+        switch (types[top]) {
+            case ByteArrayTag.ID -> {
+                if (bytes == NO_BYTES) bytes = new byte[CHUNK_SIZE];
+                input.readFully(bytes, 0, count);
+            }
+            case IntArrayTag.ID -> {
+                if (ints == NO_INTS) ints = new int[CHUNK_SIZE];
+                PrimitiveArrays.readInts(input, ints, 0, count);
+            }
+            default -> {
+                if (longs == NO_LONGS) longs = new long[CHUNK_SIZE];
+                PrimitiveArrays.readLongs(input, longs, 0, count);
+            }
+        }
+        return Token.ARRAY_CHUNK;
+    }
+
+    private void readText() throws IOException {
+        final int length = input.readUnsignedShort();
+        if (text.length < length) {
+            text = new byte[Math.max(length, text.length * 2)];
+            textBytes = ByteBuffer.wrap(text).asReadOnlyBuffer();
+        }
+        input.readFully(text, 0, length);
+        textLength = length;
+        charCount = -1;
+    }
+
+    private void push(final int containerType, final int containerElementType, final int containerSize) {
+        if (depth == MAX_DEPTH) throw new IllegalStateException("Depth too high! Maximum depth is " + MAX_DEPTH + "!");
+        if (depth == types.length) {
+            types = Arrays.copyOf(types, depth * 2);
+            elementTypes = Arrays.copyOf(elementTypes, depth * 2);
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        types[depth] = containerType;
+        elementTypes[depth] = containerElementType;
+        remaining[depth] = containerSize;
+        depth++;
+        size = containerSize;
+        elementType = containerElementType;
+    }
+
+    private Token end(final Token end) {
+        depth--;
+        type = NO_TYPE;
+        return end;
+    }
+
+    /**
+     * The tokens that binary NBT data is read as.
+     */
+    public enum Token {
+
+        /**
+         * The name of an entry in a compound, or of a root tag, which is
+         * followed by the tokens of its value.
+         */
+        NAME,
+        /**
+         * A byte value.
+         */
+        BYTE,
+        /**
+         * A short value.
+         */
+        SHORT,
+        /**
+         * An int value.
+         */
+        INT,
+        /**
+         * A long value.
+         */
+        LONG,
+        /**
+         * A float value.
+         */
+        FLOAT,
+        /**
+         * A double value.
+         */
+        DOUBLE,
+        /**
+         * A string value.
+         */
+        STRING,
+        /**
+         * The start of a byte, int or long array, which is followed by its
+         * elements, in chunks, and then {@link #ARRAY_END}.
+         */
+        ARRAY_START,
+        /**
+         * A chunk of the elements of an array.
+         */
+        ARRAY_CHUNK,
+        /**
+         * The end of an array.
+         */
+        ARRAY_END,
+        /**
+         * The start of a list, which is followed by the tokens of its
+         * elements, and then {@link #LIST_END}.
+         */
+        LIST_START,
+        /**
+         * The end of a list.
+         */
+        LIST_END,
+        /**
+         * The start of a compound, which is followed by its entries, and then
+         * {@link #COMPOUND_END}.
+         */
+        COMPOUND_START,
+        /**
+         * The end of a compound.
+         */
+        COMPOUND_END,
+        /**
+         * An empty root tag, which is only an end tag, with no name or
+         * value.
+         */
+        EMPTY,
+        /**
+         * The end of the input, after which there are no more tokens.
+         */
+        END
+    }
+}
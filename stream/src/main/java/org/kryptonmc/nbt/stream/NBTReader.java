@@ -9,6 +9,8 @@
 package org.kryptonmc.nbt.stream;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 import org.kryptonmc.nbt.ByteArrayTag;
 import org.kryptonmc.nbt.ByteTag;
@@ -26,6 +28,7 @@ import org.kryptonmc.nbt.LongTag;
 import org.kryptonmc.nbt.ShortTag;
 import org.kryptonmc.nbt.StringTag;
 import org.kryptonmc.nbt.Tag;
+import org.kryptonmc.nbt.util.ModifiedUtf8;
 
 public interface NBTReader extends AutoCloseable {
 
@@ -57,6 +60,17 @@ public interface NBTReader extends AutoCloseable {
 
     @NotNull String nextName() throws IOException;
 
+    default @NotNull ByteBuffer nextNameBytes() throws IOException {
+        final String name = nextName();
+        final byte[] bytes = new byte[ModifiedUtf8.encodedLength(name)];
+        ModifiedUtf8.encode(name, bytes, 0);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    default void skipValue() throws IOException {
+        read();
+    }
+
     byte nextByte() throws IOException;
 
     short nextShort() throws IOException;
@@ -73,30 +87,45 @@ public interface NBTReader extends AutoCloseable {
 
     void nextEnd() throws IOException;
 
+    default void readBytes(final byte@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            destination[i] = nextByte();
+        }
+    }
+
+    default void readInts(final int@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            destination[i] = nextInt();
+        }
+    }
+
+    default void readLongs(final long@NotNull[] destination, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            destination[i] = nextLong();
+        }
+    }
+
     default @NotNull Tag read() throws IOException {
         final int nextType = peekType();
         return switch (nextType) {
             case ByteArrayTag.ID -> {
                 final byte[] bytes = new byte[beginByteArray()];
-                for (int i = 0; hasNext(); i++) {
-                    bytes[i] = nextByte();
-                }
+                readBytes(bytes, 0, bytes.length);
                 endByteArray();
                 yield ByteArrayTag.of(bytes);
             }
             case IntArrayTag.ID -> {
                 final int[] ints = new int[beginIntArray()];
-                for (int i = 0; hasNext(); i++) {
-                    ints[i] = nextInt();
-                }
+                readInts(ints, 0, ints.length);
                 endIntArray();
                 yield IntArrayTag.of(ints);
             }
             case LongArrayTag.ID -> {
                 final long[] longs = new long[beginLongArray()];
-                for (int i = 0; hasNext(); i++) {
-                    longs[i] = nextLong();
-                }
+                readLongs(longs, 0, longs.length);
                 endLongArray();
                 yield LongArrayTag.of(longs);
             }
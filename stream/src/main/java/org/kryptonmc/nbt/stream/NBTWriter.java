@@ -9,6 +9,7 @@
 package org.kryptonmc.nbt.stream;
 
 import java.io.IOException;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 import org.kryptonmc.nbt.ByteArrayTag;
 import org.kryptonmc.nbt.ByteTag;
@@ -66,6 +67,27 @@ public interface NBTWriter extends AutoCloseable {
 
     void end() throws IOException;
 
+    default void writeBytes(final byte@NotNull[] source, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            value(source[i]);
+        }
+    }
+
+    default void writeInts(final int@NotNull[] source, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            value(source[i]);
+        }
+    }
+
+    default void writeLongs(final long@NotNull[] source, final int offset, final int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            value(source[i]);
+        }
+    }
+
     default void write(final @NotNull Tag value) throws IOException {
         switch (value.id()) {
             case ByteTag.ID -> value(((ByteTag) value).value());
@@ -94,27 +116,24 @@ public interface NBTWriter extends AutoCloseable {
             }
             case ByteArrayTag.ID -> {
                 final ByteArrayTag array = (ByteArrayTag) value;
-                beginByteArray(array.size());
-                for (final byte element : array.getData()) {
-                    value(element);
-                }
+                final byte[] data = array.getData();
+                beginByteArray(data.length);
+                writeBytes(data, 0, data.length);
                 endByteArray();
             }
             case IntArrayTag.ID -> {
                 final IntArrayTag array = (IntArrayTag) value;
-                beginByteArray(array.size());
-                for (final int element : array.getData()) {
-                    value(element);
-                }
-                endByteArray();
+                final int[] data = array.getData();
+                beginIntArray(data.length);
+                writeInts(data, 0, data.length);
+                endIntArray();
             }
             case LongArrayTag.ID -> {
                 final LongArrayTag array = (LongArrayTag) value;
-                beginByteArray(array.size());
-                for (final long element : array.getData()) {
-                    value(element);
-                }
-                endByteArray();
+                final long[] data = array.getData();
+                beginLongArray(data.length);
+                writeLongs(data, 0, data.length);
+                endLongArray();
             }
             default -> throw new IllegalStateException("Don't know how to write " + value + "!");
         }
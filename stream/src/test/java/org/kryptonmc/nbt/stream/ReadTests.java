@@ -8,11 +8,28 @@
  */
 package org.kryptonmc.nbt.stream;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.kryptonmc.nbt.CompoundTag;
+import org.kryptonmc.nbt.EndTag;
+import org.kryptonmc.nbt.ImmutableCompoundTag;
+import org.kryptonmc.nbt.ImmutableListTag;
+import org.kryptonmc.nbt.IntArrayTag;
+import org.kryptonmc.nbt.IntTag;
+import org.kryptonmc.nbt.ListTag;
+import org.kryptonmc.nbt.LongArrayTag;
 import org.kryptonmc.nbt.LongTag;
+import org.kryptonmc.nbt.StringTag;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class ReadTests extends AbstractStreamingTest {
 
@@ -177,4 +194,219 @@ final class ReadTests extends AbstractStreamingTest {
             reader.endCompound();
         });
     }
+
+    @Test
+    void arrays() {
+        final int[] ints = {5, -93, Integer.MIN_VALUE, 47, Integer.MAX_VALUE};
+        final long[] longs = {84L, -983L, Long.MIN_VALUE, Long.MAX_VALUE};
+        final byte[] bytes = {1, 8, -3, 25};
+        writeAndRead(writer -> {
+            writer.name("ints");
+            writer.write(IntArrayTag.of(ints));
+            writer.name("longs");
+            writer.write(LongArrayTag.of(longs));
+            writer.name("bytes");
+            writer.beginByteArray(bytes.length);
+            writer.writeBytes(bytes, 0, 2);
+            writer.writeBytes(bytes, 2, 2);
+            writer.endByteArray();
+        }, reader -> {
+            // The arrays are not at the end of the input, so this only works if the reader knows where they end.
+            assertEquals(IntArrayTag.of(ints), reader.read());
+            assertEquals(LongArrayTag.of(longs), reader.read());
+            assertEquals("bytes", reader.nextName());
+            assertEquals(bytes.length, reader.beginByteArray());
+            final byte[] read = new byte[bytes.length];
+            reader.readBytes(read, 0, 3);
+            assertTrue(reader.hasNext());
+            reader.readBytes(read, 3, 1);
+            assertFalse(reader.hasNext());
+            assertThrows(IllegalStateException.class, () -> reader.readBytes(read, 0, 1));
+            reader.endByteArray();
+            assertArrayEquals(bytes, read);
+        });
+    }
+
+    @Test
+    void invalidElementReads() {
+        writeAndRead(writer -> {
+            writer.name("ints");
+            writer.write(IntArrayTag.of(new int[]{1, 2, 3}));
+            writer.name("strings");
+            writer.write(ImmutableListTag.of(List.of(StringTag.of("a")), StringTag.ID));
+        }, reader -> {
+            assertEquals("ints", reader.nextName());
+            assertEquals(3, reader.beginIntArray());
+            final int[] read = new int[3];
+            // Invalid arguments must not change how many elements are left.
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.readInts(read, 2, 2));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.readInts(read, 0, -1));
+            assertThrows(IllegalStateException.class, reader::nextLong);
+            assertEquals(1, reader.nextInt());
+            reader.readInts(read, 1, 2);
+            assertFalse(reader.hasNext());
+            assertThrows(IllegalStateException.class, reader::nextInt);
+            reader.endIntArray();
+            assertArrayEquals(new int[]{0, 2, 3}, read);
+
+            assertEquals("strings", reader.nextName());
+            assertEquals(1, reader.beginList(StringTag.ID));
+            assertThrows(IllegalStateException.class, reader::nextInt);
+            assertEquals("a", reader.nextString());
+            assertThrows(IllegalStateException.class, reader::nextString);
+            reader.endList();
+        });
+    }
+
+    @Test
+    void skipping() {
+        final var wanted = ByteBuffer.wrap("wanted".getBytes(StandardCharsets.UTF_8));
+        writeAndRead(writer -> {
+            writer.name("root");
+            writer.beginCompound();
+            writer.name("string");
+            writer.value("skipped");
+            writer.name("list");
+            writer.write(ImmutableListTag.of(List.of(IntArrayTag.of(new int[]{1, 2}), IntArrayTag.of(new int[]{3})), IntArrayTag.ID));
+            writer.name("nested");
+            writer.write(ImmutableCompoundTag.builder().putLongArray("longs", new long[]{4, 5}).putString("wanted", "not this one").build());
+            writer.name("wanted");
+            writer.value(42);
+            writer.name("longs");
+            writer.write(LongArrayTag.of(new long[]{6, 7, 8}));
+            writer.endCompound();
+        }, reader -> {
+            assertEquals(CompoundTag.ID, reader.peekType());
+            assertEquals("root", reader.nextName());
+            reader.beginCompound();
+            int found = 0;
+            while (reader.hasNext()) {
+                if (reader.nextNameBytes().equals(wanted)) {
+                    found = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            assertThrows(IllegalStateException.class, reader::skipValue);
+            reader.endCompound();
+            assertEquals(42, found);
+            assertFalse(reader.hasNext());
+        });
+        writeAndRead(writer -> {
+            writer.name("longs");
+            writer.write(LongArrayTag.of(new long[]{6, 7, 8}));
+        }, reader -> {
+            assertEquals(3, reader.beginLongArray());
+            reader.skipValue();
+            assertEquals(7, reader.nextLong());
+            reader.skipValue();
+            assertFalse(reader.hasNext());
+            assertThrows(IllegalStateException.class, reader::skipValue);
+            reader.endLongArray();
+        });
+    }
+
+    @Test
+    void pullParser() {
+        final long[] longs = new long[NBTPullParser.CHUNK_SIZE + 10];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = i * 31L;
+        }
+        doWriteAndRead(writer -> {
+            writer.name("root");
+            writer.beginCompound();
+            writer.name("byte");
+            writer.value((byte) -5);
+            writer.name("double");
+            writer.value(0.25D);
+            writer.name("string");
+            writer.value("ÅÄÖ");
+            writer.name("skipped");
+            writer.write(ImmutableCompoundTag.builder().putString("a", "b").putIntArray("c", new int[]{1, 2, 3}).build());
+            writer.name("list");
+            writer.write(ImmutableListTag.of(List.of(StringTag.of("x"), StringTag.of("y")), StringTag.ID));
+            writer.name("longs");
+            writer.write(LongArrayTag.of(longs));
+            writer.endCompound();
+        }, input -> {
+            final var parser = new NBTPullParser(input);
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals("root", parser.text());
+            assertEquals(NBTPullParser.Token.COMPOUND_START, parser.next());
+            assertEquals(1, parser.depth());
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals(ByteBuffer.wrap("byte".getBytes(StandardCharsets.UTF_8)), parser.textBytes());
+            assertEquals(NBTPullParser.Token.BYTE, parser.next());
+            assertEquals(-5, parser.intValue());
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals(NBTPullParser.Token.DOUBLE, parser.next());
+            assertEquals(0.25D, parser.doubleValue());
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals(NBTPullParser.Token.STRING, parser.next());
+            assertEquals("ÅÄÖ", parser.textChars().toString());
+            assertEquals("ÅÄÖ", parser.text());
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            parser.skipValue();
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals("list", parser.textChars().toString());
+            assertEquals(NBTPullParser.Token.LIST_START, parser.next());
+            assertEquals(2, parser.size());
+            assertEquals(StringTag.ID, parser.elementType());
+            assertEquals(NBTPullParser.Token.STRING, parser.next());
+            // Values have already been read, so only names and the starts of containers have anything to skip.
+            assertThrows(IllegalStateException.class, parser::skipValue);
+            assertEquals(NBTPullParser.Token.STRING, parser.next());
+            assertEquals(NBTPullParser.Token.LIST_END, parser.next());
+            assertEquals(NBTPullParser.Token.NAME, parser.next());
+            assertEquals(NBTPullParser.Token.ARRAY_START, parser.next());
+            assertEquals(longs.length, parser.size());
+            final long[] read = new long[parser.size()];
+            int position = 0;
+            for (var token = parser.next(); token == NBTPullParser.Token.ARRAY_CHUNK; token = parser.next()) {
+                System.arraycopy(parser.longChunk(), 0, read, position, parser.chunkSize());
+                position += parser.chunkSize();
+            }
+            assertEquals(NBTPullParser.Token.ARRAY_END, parser.token());
+            assertArrayEquals(longs, read);
+            assertEquals(NBTPullParser.Token.COMPOUND_END, parser.next());
+            assertEquals(0, parser.depth());
+            assertEquals(NBTPullParser.Token.END, parser.next());
+        });
+    }
+
+    @Test
+    void pullParserEmptyRoot() throws IOException {
+        // An empty root between two roots holding an int each.
+        final byte[] data = {
+                IntTag.ID, 0, 1, 'a', 0, 0, 0, 1,
+                EndTag.ID,
+                IntTag.ID, 0, 1, 'b', 0, 0, 0, 2
+        };
+        final var parser = new NBTPullParser(new ByteArrayInputStream(data));
+        assertEquals(0, parser.byteChunk().length);
+        assertEquals(0, parser.intChunk().length);
+        assertEquals(0, parser.longChunk().length);
+        assertEquals(NBTPullParser.Token.NAME, parser.next());
+        assertEquals(NBTPullParser.Token.INT, parser.next());
+        assertEquals(1, parser.intValue());
+        assertEquals(NBTPullParser.Token.EMPTY, parser.next());
+        assertEquals(EndTag.ID, parser.tagType());
+        assertEquals(0, parser.depth());
+        assertEquals(NBTPullParser.Token.NAME, parser.next());
+        assertEquals("b", parser.text());
+        assertEquals(NBTPullParser.Token.INT, parser.next());
+        assertEquals(2, parser.intValue());
+        assertEquals(NBTPullParser.Token.END, parser.next());
+        assertEquals(NBTPullParser.Token.END, parser.next());
+    }
+
+    @Test
+    void pullParserNegativeListSize() throws IOException {
+        // A root list with no element type and a size of -1, followed by an end tag.
+        final byte[] data = {ListTag.ID, 0, 0, EndTag.ID, -1, -1, -1, -1, EndTag.ID};
+        final var parser = new NBTPullParser(new ByteArrayInputStream(data));
+        assertEquals(NBTPullParser.Token.NAME, parser.next());
+        final var exception = assertThrows(IllegalStateException.class, parser::next);
+        assertEquals("Negative list size: -1", exception.getMessage());
+    }
 }